@@ -7,9 +7,10 @@ import java.util.List;
 public class Argument<T> {
     private final ParameterType<T> parameterType;
     private final Group group;
+    // Or null
+    private final ExpressionInstrumentation expressionInstrumentation;
 
-    static List<Argument<?>> build(TreeRegexp treeRegexp, List<ParameterType<?>> parameterTypes, String text) {
-        Group group = treeRegexp.match(text);
+    static List<Argument<?>> build(TreeRegexp treeRegexp, Group group, List<ParameterType<?>> parameterTypes, ExpressionInstrumentation expressionInstrumentation) {
         if (group == null) return null;
 
         List<Group> argGroups = group.getChildren();
@@ -27,7 +28,7 @@ public class Argument<T> {
         for (int i = 0; i < parameterTypes.size(); i++) {
             Group argGroup = argGroups.get(i);
             ParameterType<?> parameterType = parameterTypes.get(i);
-            args.add(new Argument<>(argGroup, parameterType));
+            args.add(new Argument<>(argGroup, parameterType, expressionInstrumentation));
         }
 
         return args;
@@ -52,8 +53,13 @@ public class Argument<T> {
     }
 
     public Argument(Group group, ParameterType<T> parameterType) {
+        this(group, parameterType, null);
+    }
+
+    Argument(Group group, ParameterType<T> parameterType, ExpressionInstrumentation expressionInstrumentation) {
         this.group = group;
         this.parameterType = parameterType;
+        this.expressionInstrumentation = expressionInstrumentation;
     }
 
     public Group getGroup() {
@@ -61,7 +67,34 @@ public class Argument<T> {
     }
 
     public T getValue() {
-        return parameterType.transform(group.getValues());
+        if (expressionInstrumentation == null) {
+            return parameterType.transform(group);
+        }
+        long start = LatencySampling.start();
+        boolean failed = true;
+        try {
+            T value = parameterType.transform(group);
+            failed = false;
+            return value;
+        } finally {
+            expressionInstrumentation.parameterTransformed(parameterType, failed, LatencySampling.elapsed(start));
+        }
+    }
+
+    /**
+     * Transforms the value like {@link #getValue()}, but reports a failed
+     * transform in the result instead of throwing an exception.
+     *
+     * @return the result of the transform
+     */
+    public TransformResult<T> tryGetValue() {
+        if (expressionInstrumentation == null) {
+            return parameterType.tryTransform(group);
+        }
+        long start = LatencySampling.start();
+        TransformResult<T> result = parameterType.tryTransform(group);
+        expressionInstrumentation.parameterTransformed(parameterType, !result.isSuccess(), LatencySampling.elapsed(start));
+        return result;
     }
 
     public Type getType(){
@@ -0,0 +1,176 @@
+package io.cucumber.cucumberexpressions;
+
+import io.cucumber.cucumberexpressions.RegexpNode.Atom;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Tells whether single character atoms could match the same character, when
+ * compiled with the given flags. The answer errs on the side of overlap: atoms
+ * are only disjoint if that could be proven.
+ */
+final class AtomSets {
+    private static final int MAX_CLASS_SIZE = 256;
+    private static final Set<String> DISJOINT_ESCAPES = new HashSet<>();
+
+    static {
+        // Also with UNICODE_CHARACTER_CLASS, where digits are word characters and spaces are not
+        String[][] disjointEscapes = {{"\\d", "\\D"}, {"\\s", "\\S"}, {"\\w", "\\W"}, {"\\d", "\\s"}, {"\\d", "\\W"}, {"\\s", "\\w"}};
+        for (String[] pair : disjointEscapes) {
+            DISJOINT_ESCAPES.add(pair[0] + pair[1]);
+            DISJOINT_ESCAPES.add(pair[1] + pair[0]);
+        }
+    }
+
+    private final int flags;
+    private final Map<String, Pattern> atomPatterns = new HashMap<>();
+
+    AtomSets(int flags) {
+        this.flags = flags;
+    }
+
+    boolean isDisjoint(List<Atom> atoms, List<Atom> others) {
+        for (Atom atom : atoms) {
+            if (!isDisjoint(atom, others)) return false;
+        }
+        return true;
+    }
+
+    boolean isDisjoint(Atom atom, List<Atom> others) {
+        for (Atom other : others) {
+            if (!isDisjoint(atom, other)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Two atoms are known to be disjoint when they are a pair of escapes that
+     * don't overlap, or when one of them matches a small set of characters,
+     * none of which are matched by the other.
+     */
+    boolean isDisjoint(Atom a, Atom b) {
+        String canonicalA = RegexpCanonicalizer.canonicalize(a).toRegexp();
+        String canonicalB = RegexpCanonicalizer.canonicalize(b).toRegexp();
+        if (DISJOINT_ESCAPES.contains(canonicalA + canonicalB)) {
+            return true;
+        }
+        int[] codePoints = codePoints(a);
+        Atom other = b;
+        if (codePoints == null) {
+            codePoints = codePoints(b);
+            other = a;
+        }
+        if (codePoints == null) {
+            return false;
+        }
+        Pattern pattern = atomPattern(other);
+        for (int codePoint : codePoints) {
+            if (pattern.matcher(new String(Character.toChars(codePoint))).matches()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Pattern atomPattern(Atom atom) {
+        Pattern pattern = atomPatterns.get(atom.source);
+        if (pattern == null) {
+            pattern = Pattern.compile(atom.source, flags);
+            atomPatterns.put(atom.source, pattern);
+        }
+        return pattern;
+    }
+
+    /**
+     * @return the characters matched by the atom or null if it matches too
+     * many or they could not be determined
+     */
+    private static int[] codePoints(Atom atom) {
+        switch (atom.kind) {
+            case LITERAL:
+                return new int[]{atom.source.codePointAt(0)};
+            case ESCAPE:
+                int escaped = escapedCodePoint(atom.source, 0);
+                return escaped == -1 ? null : new int[]{escaped};
+            case CLASS:
+                return classCodePoints(atom.source);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @return the character matched by the escape at {@code index}, or -1 if
+     * it is not a single character escape
+     */
+    private static int escapedCodePoint(String source, int index) {
+        if (index + 2 > source.length()) return -1;
+        int c = source.codePointAt(index + 1);
+        switch (c) {
+            case 't':
+                return '\t';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 'f':
+                return '\f';
+            case 'a':
+                return '\u0007';
+            case 'e':
+                return '\u001B';
+            default:
+                // Escaped letters and digits have a special meaning, anything else is literal
+                return Character.isLetterOrDigit(c) ? -1 : c;
+        }
+    }
+
+    private static int[] classCodePoints(String source) {
+        // Negations, nested classes and intersections match too much to enumerate
+        if (source.startsWith("[^") || source.indexOf('[', 1) != -1 || source.contains("&&")) {
+            return null;
+        }
+        List<Integer> codePoints = new ArrayList<>();
+        int end = source.length() - 1;
+        int i = 1;
+        while (i < end) {
+            int from = source.codePointAt(i);
+            int next = i + Character.charCount(from);
+            if (from == '\\') {
+                from = escapedCodePoint(source, i);
+                if (from == -1) return null;
+                next = i + 1 + Character.charCount(from);
+            }
+            int to = from;
+            if (next + 1 < end && source.charAt(next) == '-') {
+                int toIndex = next + 1;
+                if (source.charAt(toIndex) == '\\') {
+                    to = escapedCodePoint(source, toIndex);
+                    if (to == -1) return null;
+                    next = toIndex + 1 + Character.charCount(to);
+                } else {
+                    to = source.codePointAt(toIndex);
+                    next = toIndex + Character.charCount(to);
+                }
+            }
+            if (to < from || codePoints.size() + to - from >= MAX_CLASS_SIZE) {
+                return null;
+            }
+            for (int codePoint = from; codePoint <= to; codePoint++) {
+                codePoints.add(codePoint);
+            }
+            i = next;
+        }
+        int[] result = new int[codePoints.size()];
+        for (int j = 0; j < result.length; j++) {
+            result[j] = codePoints.get(j);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,26 @@
+package io.cucumber.cucumberexpressions;
+
+import java.lang.reflect.Type;
+
+/**
+ * A {@link ParameterByTypeTransformer} that can prepare a transformer for a
+ * specific type up front. Implement this when resolving the type is expensive,
+ * e.g. to cache a Jackson {@code ObjectReader} per type rather than resolving
+ * the type on every transform.
+ * <p>
+ * The {@link ParameterTypeRegistry} binds each type once and reuses the result
+ * for all anonymous parameters with that type hint, until the default transformer
+ * is replaced.
+ */
+public interface BindableParameterByTypeTransformer extends ParameterByTypeTransformer {
+
+    /**
+     * Creates a transformer that converts to {@code toValueType}. Failures to
+     * convert should be reported by the returned transformer rather than thrown
+     * from this method.
+     *
+     * @param toValueType the type to transform to
+     * @return a transformer equivalent to {@code transform(arg, toValueType)}
+     */
+    Transformer<Object> bind(Type toValueType);
+}
@@ -40,19 +40,19 @@ final class BuiltInParameterTransformer implements ParameterByTypeTransformer {
         }
 
         if (Byte.class.equals(toValueClass) || byte.class.equals(toValueClass)) {
-            return Byte.decode(fromValue);
+            return IntegerParser.parseByte(fromValue, 0, fromValue.length());
         }
 
         if (Short.class.equals(toValueClass) || short.class.equals(toValueClass)) {
-            return Short.decode(fromValue);
+            return IntegerParser.parseShort(fromValue, 0, fromValue.length());
         }
 
         if (Integer.class.equals(toValueClass) || int.class.equals(toValueClass)) {
-            return Integer.decode(fromValue);
+            return IntegerParser.parseInt(fromValue, 0, fromValue.length());
         }
 
         if (Long.class.equals(toValueClass) || long.class.equals(toValueClass)) {
-            return Long.decode(fromValue);
+            return IntegerParser.parseLong(fromValue, 0, fromValue.length());
         }
 
         if (Float.class.equals(toValueClass) || float.class.equals(toValueClass)) {
@@ -82,6 +82,44 @@ final class BuiltInParameterTransformer implements ParameterByTypeTransformer {
         throw createIllegalArgumentException(fromValue, toValueType);
     }
 
+    /**
+     * Transforms a region of {@code text}, parsing numbers in place where possible.
+     */
+    Object transform(CharSequence text, int start, int end, Class<?> toValueClass) {
+        if (start == -1) {
+            return transform(null, toValueClass);
+        }
+
+        if (String.class.equals(toValueClass) || Object.class.equals(toValueClass)) {
+            return text.subSequence(start, end).toString();
+        }
+
+        if (Byte.class.equals(toValueClass) || byte.class.equals(toValueClass)) {
+            return IntegerParser.parseByte(text, start, end);
+        }
+
+        if (Short.class.equals(toValueClass) || short.class.equals(toValueClass)) {
+            return IntegerParser.parseShort(text, start, end);
+        }
+
+        if (Integer.class.equals(toValueClass) || int.class.equals(toValueClass)) {
+            return IntegerParser.parseInt(text, start, end);
+        }
+
+        if (Long.class.equals(toValueClass) || long.class.equals(toValueClass)) {
+            return IntegerParser.parseLong(text, start, end);
+        }
+
+        if (Float.class.equals(toValueClass) || float.class.equals(toValueClass)) {
+            return numberParser.parseFloat(text, start, end);
+        }
+
+        if (Double.class.equals(toValueClass) || double.class.equals(toValueClass)) {
+            return numberParser.parseDouble(text, start, end);
+        }
+
+        return transform(text.subSequence(start, end).toString(), toValueClass);
+    }
 
     private IllegalArgumentException createIllegalArgumentException(String fromValue, Type toValueType) {
         return new IllegalArgumentException(
@@ -0,0 +1,51 @@
+package io.cucumber.cucumberexpressions;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A read only view of a range of a byte buffer, one char per byte, as in
+ * ISO-8859-1. For ASCII text this is the same as decoding it, without
+ * copying the bytes. The buffer is only read with absolute gets, so the
+ * view can be shared between threads.
+ */
+final class ByteCharSequence implements CharSequence {
+    private final ByteBuffer bytes;
+    private final int offset;
+    private final int length;
+
+    ByteCharSequence(ByteBuffer bytes, int offset, int length) {
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index: " + index + ", length: " + length);
+        }
+        return (char) (bytes.get(offset + index) & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("start: " + start + ", end: " + end + ", length: " + length);
+        }
+        return new ByteCharSequence(bytes, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) (bytes.get(offset + i) & 0xFF);
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,43 @@
+package io.cucumber.cucumberexpressions;
+
+/**
+ * A read only view of a range of a char array. The array must not be changed
+ * while the view is in use.
+ */
+final class CharArraySequence implements CharSequence {
+    private final char[] chars;
+    private final int offset;
+    private final int length;
+
+    CharArraySequence(char[] chars, int offset, int length) {
+        this.chars = chars;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index: " + index + ", length: " + length);
+        }
+        return chars[offset + index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("start: " + start + ", end: " + end + ", length: " + length);
+        }
+        return new CharArraySequence(chars, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return new String(chars, offset, length);
+    }
+}
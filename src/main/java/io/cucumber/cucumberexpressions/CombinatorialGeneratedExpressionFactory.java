@@ -1,54 +1,117 @@
 package io.cucumber.cucumberexpressions;
 
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 class CombinatorialGeneratedExpressionFactory {
     // 256 generated expressions ought to be enough for anybody
-    private static final int MAX_EXPRESSIONS = 256;
-    private final String expressionTemplate;
+    static final int MAX_EXPRESSIONS = 256;
+    private final ExpressionTemplate expressionTemplate;
     private final List<List<ParameterType<?>>> parameterTypeCombinations;
 
     CombinatorialGeneratedExpressionFactory(
             String expressionTemplate,
             List<List<ParameterType<?>>> parameterTypeCombinations) {
 
+        this(ExpressionTemplate.parse(expressionTemplate), parameterTypeCombinations);
+    }
+
+    CombinatorialGeneratedExpressionFactory(
+            ExpressionTemplate expressionTemplate,
+            List<List<ParameterType<?>>> parameterTypeCombinations) {
+
         this.expressionTemplate = expressionTemplate;
         this.parameterTypeCombinations = parameterTypeCombinations;
     }
 
     List<GeneratedExpression> generateExpressions() {
+        return generateExpressions(MAX_EXPRESSIONS);
+    }
+
+    List<GeneratedExpression> generateExpressions(int maxExpressions) {
         List<GeneratedExpression> generatedExpressions = new ArrayList<>();
-        ArrayDeque<ParameterType<?>> permutation = new ArrayDeque<>(parameterTypeCombinations.size());
-        generatePermutations(generatedExpressions, permutation);
+        Iterator<GeneratedExpression> iterator = iterator(maxExpressions);
+        while (iterator.hasNext()) {
+            generatedExpressions.add(iterator.next());
+        }
         return generatedExpressions;
     }
 
-    private void generatePermutations(
-            List<GeneratedExpression> generatedExpressions,
-            Deque<ParameterType<?>> permutation
-    ) {
-        if (generatedExpressions.size() >= MAX_EXPRESSIONS) {
-            return;
+    /**
+     * Creates the permutations on demand, in the same order as
+     * {@link #generateExpressions()}. Each permutation costs O(parameters).
+     *
+     * @param maxExpressions the maximum number of expressions to generate
+     * @return an iterator over the generated expressions
+     */
+    Iterator<GeneratedExpression> iterator(long maxExpressions) {
+        return new PermutationIterator(maxExpressions);
+    }
+
+    // Factories with the same template and combinations generate the same expressions
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CombinatorialGeneratedExpressionFactory that = (CombinatorialGeneratedExpressionFactory) o;
+        return expressionTemplate.equals(that.expressionTemplate)
+                && parameterTypeCombinations.equals(that.parameterTypeCombinations);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * expressionTemplate.hashCode() + parameterTypeCombinations.hashCode();
+    }
+
+    private final class PermutationIterator implements Iterator<GeneratedExpression> {
+        // The index of the parameter type chosen for each parameter, the last one changes fastest
+        private final int[] choices = new int[parameterTypeCombinations.size()];
+        private long remaining;
+        private boolean hasNext;
+
+        PermutationIterator(long maxExpressions) {
+            remaining = maxExpressions;
+            hasNext = remaining > 0;
+            for (List<ParameterType<?>> parameterTypes : parameterTypeCombinations) {
+                if (parameterTypes.isEmpty()) {
+                    hasNext = false;
+                }
+            }
         }
 
-        if (permutation.size() == parameterTypeCombinations.size()) {
-            ArrayList<ParameterType<?>> permutationCopy = new ArrayList<>(permutation);
-            generatedExpressions.add(new GeneratedExpression(expressionTemplate, permutationCopy));
-            return;
+        @Override
+        public boolean hasNext() {
+            return hasNext;
         }
 
-        List<ParameterType<?>> parameterTypes = parameterTypeCombinations.get(permutation.size());
-        for (ParameterType<?> parameterType : parameterTypes) {
-            // Avoid recursion if no elements can be added.
-            if (generatedExpressions.size() >= MAX_EXPRESSIONS) {
-                return;
+        @Override
+        public GeneratedExpression next() {
+            if (!hasNext) {
+                throw new NoSuchElementException();
+            }
+            List<ParameterType<?>> permutation = new ArrayList<>(choices.length);
+            for (int i = 0; i < choices.length; i++) {
+                permutation.add(parameterTypeCombinations.get(i).get(choices[i]));
             }
-            permutation.addLast(parameterType);
-            generatePermutations(generatedExpressions, permutation);
-            permutation.removeLast();
+            hasNext = --remaining > 0 && advance();
+            return new GeneratedExpression(expressionTemplate, permutation);
+        }
+
+        private boolean advance() {
+            for (int i = choices.length - 1; i >= 0; i--) {
+                if (++choices[i] < parameterTypeCombinations.get(i).size()) {
+                    return true;
+                }
+                choices[i] = 0;
+            }
+            return false;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
         }
     }
 }
@@ -0,0 +1,137 @@
+package io.cucumber.cucumberexpressions;
+
+import java.util.List;
+
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * The result of analyzing the regexp of an expression with
+ * {@link RegexpComplexityAnalyzer}.
+ */
+public final class ComplexityReport {
+    /**
+     * How the time to reject a text that almost matches grows with its length.
+     */
+    public enum Cost {
+        LINEAR,
+        POLYNOMIAL,
+        EXPONENTIAL,
+        /**
+         * The regexp could not be analyzed. Higher than any other cost,
+         * as the regexp may be as expensive as any of them.
+         */
+        UNKNOWN
+    }
+
+    public enum Kind {
+        /**
+         * A quantifier inside another quantifier, where both can match the
+         * same characters, as in {@code (a+)+}
+         */
+        NESTED_QUANTIFIER,
+        /**
+         * A quantifier that can give back characters to a later quantifier,
+         * as in {@code (.*) (.*)}
+         */
+        OVERLAPPING_QUANTIFIERS,
+        /**
+         * A repeated alternation with alternatives that match the same
+         * characters, as in {@code (a|aa)+}
+         */
+        AMBIGUOUS_ALTERNATION
+    }
+
+    public static final class Warning {
+        private final Kind kind;
+        private final Cost cost;
+        private final String fragment;
+
+        Warning(Kind kind, Cost cost, String fragment) {
+            this.kind = kind;
+            this.cost = cost;
+            this.fragment = fragment;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public Cost getCost() {
+            return cost;
+        }
+
+        /**
+         * @return the part of the regexp the warning is about
+         */
+        public String getFragment() {
+            return fragment;
+        }
+
+        @Override
+        public String toString() {
+            return kind + " " + fragment + " (" + cost + ")";
+        }
+    }
+
+    private final String expression;
+    private final String regexp;
+    private final boolean analyzed;
+    private final List<Warning> warnings;
+
+    ComplexityReport(String expression, String regexp, boolean analyzed, List<Warning> warnings) {
+        this.expression = expression;
+        this.regexp = regexp;
+        this.analyzed = analyzed;
+        this.warnings = unmodifiableList(warnings);
+    }
+
+    /**
+     * @return the source of the analyzed expression
+     */
+    public String getExpression() {
+        return expression;
+    }
+
+    public String getRegexp() {
+        return regexp;
+    }
+
+    /**
+     * @return false if the regexp uses syntax the analyzer doesn't understand,
+     * in which case there are no warnings
+     */
+    public boolean isAnalyzed() {
+        return analyzed;
+    }
+
+    /**
+     * @return the highest cost of the warnings, or {@link Cost#UNKNOWN} if
+     * the regexp was not analyzed
+     */
+    public Cost getCost() {
+        if (!analyzed) {
+            return Cost.UNKNOWN;
+        }
+        Cost cost = Cost.LINEAR;
+        for (Warning warning : warnings) {
+            if (warning.cost.compareTo(cost) > 0) {
+                cost = warning.cost;
+            }
+        }
+        return cost;
+    }
+
+    public List<Warning> getWarnings() {
+        return warnings;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder()
+                .append(expression).append(": ").append(analyzed ? getCost() : "not analyzed");
+        for (Warning warning : warnings) {
+            sb.append("\n  ").append(warning);
+        }
+        return sb.toString();
+    }
+}
@@ -23,16 +23,25 @@ public class CucumberExpression implements Expression {
     private final ParameterTypeRegistry parameterTypeRegistry;
 
     public CucumberExpression(String expression, ParameterTypeRegistry parameterTypeRegistry) {
+        ExpressionInstrumentation expressionInstrumentation = parameterTypeRegistry.getExpressionInstrumentation();
+        long start = expressionInstrumentation == null ? 0 : System.nanoTime();
         this.source = expression;
         this.parameterTypeRegistry = parameterTypeRegistry;
 
         expression = processEscapes(expression);
         expression = processOptional(expression);
         expression = processAlternation(expression);
+        long resolutionStart = expressionInstrumentation == null ? 0 : System.nanoTime();
         expression = processParameters(expression, parameterTypeRegistry);
         expression = "^" + expression + "$";
-        treeRegexp = new TreeRegexp(expression);
-
+        long compileStart = expressionInstrumentation == null ? 0 : System.nanoTime();
+        treeRegexp = TreeRegexpPool.intern(expression);
+        if (expressionInstrumentation != null) {
+            long end = System.nanoTime();
+            expressionInstrumentation.parameterTypesResolved(this, compileStart - resolutionStart);
+            expressionInstrumentation.regexpCompiled(this, end - compileStart);
+            expressionInstrumentation.expressionCreated(this, end - start);
+        }
     }
 
     private String processEscapes(String expression) {
@@ -128,18 +137,42 @@ public class CucumberExpression implements Expression {
 
     @Override
     public List<Argument<?>> match(String text, Type... typeHints) {
+        return matchSequence(text, typeHints);
+    }
+
+    /**
+     * Like {@link #match(String, Type...)}, but matches any text without
+     * copying it to a string. The arguments refer to the text.
+     */
+    List<Argument<?>> matchSequence(CharSequence text, Type... typeHints) {
+        List<ParameterType<?>> parameterTypes = resolveParameterTypes(typeHints);
+        ExpressionInstrumentation expressionInstrumentation = parameterTypeRegistry.getExpressionInstrumentation();
+        Group group = parameterTypeRegistry.match(this, treeRegexp, text, expressionInstrumentation);
+        return Argument.build(treeRegexp, group, parameterTypes, expressionInstrumentation);
+    }
+
+    /**
+     * @return the parameter types of the arguments, with anonymous ones bound to the type hints
+     */
+    List<ParameterType<?>> resolveParameterTypes(Type... typeHints) {
         List<ParameterType<?>> parameterTypes = new ArrayList<>(this.parameterTypes);
         for (int i = 0; i < parameterTypes.size(); i++) {
             ParameterType<?> parameterType = parameterTypes.get(i);
             Type type = i < typeHints.length ? typeHints[i] : String.class;
             if (parameterType.isAnonymous()) {
-                ParameterByTypeTransformer defaultTransformer = parameterTypeRegistry.getDefaultParameterTransformer();
-                ObjectMapperTransformer transformer = new ObjectMapperTransformer(defaultTransformer, type);
+                Transformer<Object> transformer = parameterTypeRegistry.bindDefaultParameterTransformer(type);
                 parameterTypes.set(i, parameterType.deAnonymize(type, transformer));
             }
         }
+        return parameterTypes;
+    }
+
+    TreeRegexp getTreeRegexp() {
+        return treeRegexp;
+    }
 
-        return Argument.build(treeRegexp, parameterTypes, text);
+    ParameterTypeRegistry getParameterTypeRegistry() {
+        return parameterTypeRegistry;
     }
 
     @Override
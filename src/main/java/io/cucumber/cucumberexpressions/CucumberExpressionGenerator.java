@@ -2,46 +2,194 @@ package io.cucumber.cucumberexpressions;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import static java.util.Collections.unmodifiableList;
+
 public class CucumberExpressionGenerator {
+    private static final int BATCH_SIZE = 64;
     private final ParameterTypeRegistry parameterTypeRegistry;
+    private final ConcurrentMap<String, SnippetRegexp> snippetRegexps = new ConcurrentHashMap<>();
 
     public CucumberExpressionGenerator(ParameterTypeRegistry parameterTypeRegistry) {
         this.parameterTypeRegistry = parameterTypeRegistry;
     }
 
     public List<GeneratedExpression> generateExpressions(String text) {
+        return createGeneratedExpressionFactory(text).generateExpressions();
+    }
+
+    /**
+     * @param text           the text (step) to generate expressions for
+     * @param maxExpressions the maximum number of expressions to generate
+     * @return at most {@code maxExpressions} generated expressions
+     */
+    public List<GeneratedExpression> generateExpressions(String text, int maxExpressions) {
+        return createGeneratedExpressionFactory(text).generateExpressions(maxExpressions);
+    }
+
+    /**
+     * Generates expressions on demand, in the same order as {@link #generateExpressions(String)}
+     * but without a limit. Taking the next expression is proportional to the number of parameters,
+     * so callers that only show the first few expressions don't pay for all the others.
+     *
+     * @param text the text (step) to generate expressions for
+     * @return an iterator over all generated expressions
+     */
+    public Iterator<GeneratedExpression> iterateExpressions(String text) {
+        return createGeneratedExpressionFactory(text).iterator(Long.MAX_VALUE);
+    }
+
+    /**
+     * Generates expressions for many texts at once, e.g. all undefined steps of a suite.
+     * <p>
+     * Texts that lead to the same expression template share one list of generated
+     * expressions, which is unmodifiable. Duplicate texts are generated once.
+     *
+     * @param texts the texts (steps) to generate expressions for
+     * @return the generated expressions by text, in the order of the texts
+     */
+    public Map<String, List<GeneratedExpression>> generateExpressions(Collection<String> texts) {
+        List<String> uniqueTexts = new ArrayList<>(new LinkedHashSet<>(texts));
+        List<List<GeneratedExpression>> generatedExpressions = generateExpressions(
+                uniqueTexts, new ConcurrentHashMap<CombinatorialGeneratedExpressionFactory, List<GeneratedExpression>>());
+        return zip(uniqueTexts, generatedExpressions);
+    }
+
+    /**
+     * Like {@link #generateExpressions(Collection)} but spreads the work over an
+     * executor service. The parameter type registry must not be changed meanwhile.
+     *
+     * @param texts           the texts (steps) to generate expressions for
+     * @param executorService the executor service to generate expressions with
+     * @return the generated expressions by text, in the order of the texts
+     */
+    public Map<String, List<GeneratedExpression>> generateExpressions(Collection<String> texts, ExecutorService executorService) {
+        List<String> uniqueTexts = new ArrayList<>(new LinkedHashSet<>(texts));
+        final ConcurrentMap<CombinatorialGeneratedExpressionFactory, List<GeneratedExpression>> generatedExpressionsByTemplate = new ConcurrentHashMap<>();
+        List<Callable<List<List<GeneratedExpression>>>> batches = new ArrayList<>();
+        for (int from = 0; from < uniqueTexts.size(); from += BATCH_SIZE) {
+            final List<String> batch = uniqueTexts.subList(from, Math.min(from + BATCH_SIZE, uniqueTexts.size()));
+            batches.add(new Callable<List<List<GeneratedExpression>>>() {
+                @Override
+                public List<List<GeneratedExpression>> call() {
+                    return generateExpressions(batch, generatedExpressionsByTemplate);
+                }
+            });
+        }
+
+        List<List<GeneratedExpression>> generatedExpressions = new ArrayList<>(uniqueTexts.size());
+        try {
+            for (Future<List<List<GeneratedExpression>>> future : executorService.invokeAll(batches)) {
+                generatedExpressions.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CucumberExpressionException("Interrupted while generating expressions", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new CucumberExpressionException("Failed to generate expressions", cause);
+        }
+        return zip(uniqueTexts, generatedExpressions);
+    }
+
+    private List<List<GeneratedExpression>> generateExpressions(
+            List<String> texts,
+            ConcurrentMap<CombinatorialGeneratedExpressionFactory, List<GeneratedExpression>> generatedExpressionsByTemplate) {
+        List<List<GeneratedExpression>> result = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            CombinatorialGeneratedExpressionFactory factory = createGeneratedExpressionFactory(text);
+            List<GeneratedExpression> generatedExpressions = generatedExpressionsByTemplate.get(factory);
+            if (generatedExpressions == null) {
+                generatedExpressions = unmodifiableList(factory.generateExpressions());
+                List<GeneratedExpression> existing = generatedExpressionsByTemplate.putIfAbsent(factory, generatedExpressions);
+                if (existing != null) {
+                    generatedExpressions = existing;
+                }
+            }
+            result.add(generatedExpressions);
+        }
+        return result;
+    }
+
+    private static Map<String, List<GeneratedExpression>> zip(List<String> texts, List<List<GeneratedExpression>> generatedExpressions) {
+        Map<String, List<GeneratedExpression>> result = new LinkedHashMap<>();
+        for (int i = 0; i < texts.size(); i++) {
+            result.put(texts.get(i), generatedExpressions.get(i));
+        }
+        return result;
+    }
+
+    private CombinatorialGeneratedExpressionFactory createGeneratedExpressionFactory(String text) {
+        ExpressionInstrumentation expressionInstrumentation = parameterTypeRegistry.getExpressionInstrumentation();
+        if (expressionInstrumentation == null) {
+            return scan(text);
+        }
+        long start = System.nanoTime();
+        CombinatorialGeneratedExpressionFactory factory = scan(text);
+        expressionInstrumentation.snippetTextScanned(text, System.nanoTime() - start);
+        return factory;
+    }
+
+    private CombinatorialGeneratedExpressionFactory scan(String text) {
         List<List<ParameterType<?>>> parameterTypeCombinations = new ArrayList<>();
         List<ParameterTypeMatcher> parameterTypeMatchers = createParameterTypeMatchers(text);
-        StringBuilder expressionTemplate = new StringBuilder();
+        // Candidate matches ordered leftmost-longest. A match stays valid until the text
+        // it starts in has been consumed, so each step only searches again with the
+        // matchers whose match was overtaken, and those that depend on the region start.
+        PriorityQueue<ParameterTypeMatcher> candidates = new PriorityQueue<>(Math.max(1, parameterTypeMatchers.size()));
+        List<ParameterTypeMatcher> regionSensitiveMatchers = new ArrayList<>();
+        List<ParameterTypeMatcher> staleMatchers = new ArrayList<>();
+        for (ParameterTypeMatcher parameterTypeMatcher : parameterTypeMatchers) {
+            if (parameterTypeMatcher.isRegionSensitive()) {
+                regionSensitiveMatchers.add(parameterTypeMatcher);
+            } else {
+                staleMatchers.add(parameterTypeMatcher);
+            }
+        }
+        List<String> literals = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
         int pos = 0;
         while (true) {
-            List<ParameterTypeMatcher> matchingParameterTypeMatchers = new ArrayList<>();
-
-            for (ParameterTypeMatcher parameterTypeMatcher : parameterTypeMatchers) {
+            for (ParameterTypeMatcher parameterTypeMatcher : staleMatchers) {
                 if (parameterTypeMatcher.advanceToAndFind(pos)) {
-                    matchingParameterTypeMatchers.add(parameterTypeMatcher);
+                    candidates.add(parameterTypeMatcher);
                 }
             }
+            for (ParameterTypeMatcher parameterTypeMatcher : regionSensitiveMatchers) {
+                if (parameterTypeMatcher.advanceToAndFind(pos)) {
+                    candidates.add(parameterTypeMatcher);
+                }
+            }
+            staleMatchers.clear();
 
-            if (!matchingParameterTypeMatchers.isEmpty()) {
-                Collections.sort(matchingParameterTypeMatchers);
-
+            if (!candidates.isEmpty()) {
                 // Find all the best parameter type matchers, they are all candidates.
-                ParameterTypeMatcher bestParameterTypeMatcher = matchingParameterTypeMatchers.get(0);
+                ParameterTypeMatcher bestParameterTypeMatcher = candidates.peek();
+                int bestStart = bestParameterTypeMatcher.start();
+                int bestEnd = bestParameterTypeMatcher.end();
                 List<ParameterTypeMatcher> bestParameterTypeMatchers = new ArrayList<>();
-                for (ParameterTypeMatcher m : matchingParameterTypeMatchers) {
-                    if (m.compareTo(bestParameterTypeMatcher) == 0) {
-                        bestParameterTypeMatchers.add(m);
-                    }
+                while (!candidates.isEmpty() && candidates.peek().compareTo(bestParameterTypeMatcher) == 0) {
+                    bestParameterTypeMatchers.add(candidates.poll());
                 }
 
                 // Build a list of parameter types without duplicates. The reason there
@@ -60,10 +208,23 @@ public class CucumberExpressionGenerator {
 
                 parameterTypeCombinations.add(new ArrayList<>(parameterTypes));
 
-                expressionTemplate
-                        .append(escape(text.substring(pos, bestParameterTypeMatcher.start())))
-                        .append("{%s}");
-                pos = bestParameterTypeMatcher.start() + bestParameterTypeMatcher.group().length();
+                escape(text, pos, bestStart, literal).append('{');
+                literals.add(literal.toString());
+                literal.setLength(0);
+                literal.append('}');
+                pos = bestEnd;
+
+                for (ParameterTypeMatcher parameterTypeMatcher : bestParameterTypeMatchers) {
+                    if (!parameterTypeMatcher.isRegionSensitive()) {
+                        staleMatchers.add(parameterTypeMatcher);
+                    }
+                }
+                for (ParameterTypeMatcher parameterTypeMatcher : regionSensitiveMatchers) {
+                    candidates.remove(parameterTypeMatcher);
+                }
+                while (!candidates.isEmpty() && !candidates.peek().isStillValidFrom(pos)) {
+                    staleMatchers.add(candidates.poll());
+                }
             } else {
                 break;
             }
@@ -72,15 +233,19 @@ public class CucumberExpressionGenerator {
                 break;
             }
         }
-        expressionTemplate.append(escape(text.substring(pos)));
-        return new CombinatorialGeneratedExpressionFactory(expressionTemplate.toString(), parameterTypeCombinations).generateExpressions();
+        literals.add(escape(text, pos, text.length(), literal).toString());
+        return new CombinatorialGeneratedExpressionFactory(new ExpressionTemplate(literals), parameterTypeCombinations);
     }
 
-    private String escape(String s) {
-        return s.replaceAll("%", "%%") // Escape for String.format
-                .replaceAll("\\(", "\\\\(")
-                .replaceAll("\\{", "\\\\{")
-                .replaceAll("/", "\\\\/");
+    private static StringBuilder escape(String text, int start, int end, StringBuilder escaped) {
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == '(' || c == '{' || c == '/') {
+                escaped.append('\\');
+            }
+            escaped.append(c);
+        }
+        return escaped;
     }
 
     /**
@@ -90,8 +255,7 @@ public class CucumberExpressionGenerator {
      */
     @Deprecated
     public GeneratedExpression generateExpression(String text) {
-        List<GeneratedExpression> generatedExpressions = generateExpressions(text);
-        return generatedExpressions.get(0);
+        return iterateExpressions(text).next();
     }
 
     private List<ParameterTypeMatcher> createParameterTypeMatchers(String text) {
@@ -105,15 +269,35 @@ public class CucumberExpressionGenerator {
         return parameterTypeMatchers;
     }
 
-    private static List<ParameterTypeMatcher> createParameterTypeMatchers(ParameterType<?> parameterType, String text) {
+    private List<ParameterTypeMatcher> createParameterTypeMatchers(ParameterType<?> parameterType, String text) {
         List<ParameterTypeMatcher> result = new ArrayList<>();
         List<String> captureGroupRegexps = parameterType.getRegexps();
         for (String captureGroupRegexp : captureGroupRegexps) {
-            Pattern regexp = Pattern.compile("(" + captureGroupRegexp + ")");
-            Matcher matcher = regexp.matcher(text);
-            result.add(new ParameterTypeMatcher(parameterType, matcher, text.length()));
+            SnippetRegexp snippetRegexp = getSnippetRegexp(captureGroupRegexp);
+            Matcher matcher = snippetRegexp.pattern.matcher(text);
+            result.add(new ParameterTypeMatcher(parameterType, matcher, text.length(), snippetRegexp.regionSensitive));
         }
         return result;
     }
 
+    private SnippetRegexp getSnippetRegexp(String captureGroupRegexp) {
+        SnippetRegexp snippetRegexp = snippetRegexps.get(captureGroupRegexp);
+        if (snippetRegexp == null) {
+            // Patterns are thread safe, a duplicate compiled by a racing thread is harmless
+            snippetRegexp = new SnippetRegexp(captureGroupRegexp);
+            snippetRegexps.put(captureGroupRegexp, snippetRegexp);
+        }
+        return snippetRegexp;
+    }
+
+    private static final class SnippetRegexp {
+        private final Pattern pattern;
+        private final boolean regionSensitive;
+
+        SnippetRegexp(String captureGroupRegexp) {
+            this.pattern = Pattern.compile("(" + captureGroupRegexp + ")");
+            this.regionSensitive = ParameterTypeMatcher.isRegionSensitive(captureGroupRegexp);
+        }
+    }
+
 }
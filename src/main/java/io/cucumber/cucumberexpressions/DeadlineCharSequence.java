@@ -0,0 +1,49 @@
+package io.cucumber.cucumberexpressions;
+
+/**
+ * A {@link CharSequence} that fails once its deadline has passed. The regexp
+ * engine reads the text through {@link #charAt(int)} while it backtracks, so
+ * matching against this sequence can't run much longer than the deadline.
+ */
+final class DeadlineCharSequence implements CharSequence {
+    // Reading the clock on every character would slow down matching
+    private static final int CHECK_INTERVAL_MASK = 0x3FF;
+
+    private final CharSequence text;
+    private final long deadlineNanos;
+    private int reads;
+
+    DeadlineCharSequence(CharSequence text, long deadlineNanos) {
+        this.text = text;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    @Override
+    public int length() {
+        return text.length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        if ((++reads & CHECK_INTERVAL_MASK) == 0 && System.nanoTime() - deadlineNanos > 0) {
+            throw new DeadlineExceeded();
+        }
+        return text.charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return new DeadlineCharSequence(text.subSequence(start, end), deadlineNanos);
+    }
+
+    @Override
+    public String toString() {
+        return text.toString();
+    }
+
+    static final class DeadlineExceeded extends RuntimeException {
+        DeadlineExceeded() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -17,12 +17,30 @@ public class ExpressionFactory {
     private static final Pattern PARENS = Pattern.compile("\\(([^)]+)\\)");
     private static final Pattern REGEXP_CHARS = Pattern.compile("[\\[\\].+*]+");
     private final ParameterTypeRegistry parameterTypeRegistry;
+    private final ExpressionValidator expressionValidator;
 
     public ExpressionFactory(ParameterTypeRegistry parameterTypeRegistry) {
+        this(parameterTypeRegistry, null);
+    }
+
+    /**
+     * @param parameterTypeRegistry used to create expressions
+     * @param expressionValidator   checks every created expression, or null
+     */
+    public ExpressionFactory(ParameterTypeRegistry parameterTypeRegistry, ExpressionValidator expressionValidator) {
         this.parameterTypeRegistry = parameterTypeRegistry;
+        this.expressionValidator = expressionValidator;
     }
 
     public Expression createExpression(String expressionString) {
+        Expression expression = create(expressionString);
+        if (expressionValidator != null) {
+            expressionValidator.validate(expression);
+        }
+        return expression;
+    }
+
+    private Expression create(String expressionString) {
         if (BEGIN_ANCHOR.matcher(expressionString).find() || END_ANCHOR.matcher(expressionString).find()) {
             return createRegularExpressionWithAnchors(expressionString);
         }
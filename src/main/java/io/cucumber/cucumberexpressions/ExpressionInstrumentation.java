@@ -0,0 +1,80 @@
+package io.cucumber.cucumberexpressions;
+
+/**
+ * Is told about the work done by expressions created with a
+ * {@link ParameterTypeRegistry}, see
+ * {@link ParameterTypeRegistry#setExpressionInstrumentation(ExpressionInstrumentation)}.
+ * <p>
+ * Methods are called on the threads doing the work, so implementations must be
+ * thread safe and fast. {@link ExpressionStatistics} is an implementation that
+ * keeps counts and latency histograms. Implementations can also forward the
+ * calls to a tracer or profiler, e.g. as {@code jdk.jfr.Event}s on Java 11 and
+ * later.
+ * <p>
+ * Creating an expression is reported as two phases, resolving its parameter
+ * types and compiling its regexp, followed by the creation as a whole.
+ * Matching is reported as the regexp match and, if the text matched, the
+ * construction of its {@link Group}s, or as a timeout. Transforming an argument and scanning a
+ * text for snippets are reported as one phase each.
+ * <p>
+ * Every phase is reported, but to keep the overhead low only a random sample
+ * of about one in 16 matches, group constructions and transforms is timed. The
+ * others are reported with a duration of {@code -1}.
+ */
+public interface ExpressionInstrumentation {
+    /**
+     * @param expression    the expression whose parameter types were resolved
+     * @param durationNanos how long it took to resolve the parameter types, or -1 if not measured
+     */
+    void parameterTypesResolved(Expression expression, long durationNanos);
+
+    /**
+     * @param expression    the expression whose regexp was compiled
+     * @param durationNanos how long it took to compile the regexp
+     */
+    void regexpCompiled(Expression expression, long durationNanos);
+
+    /**
+     * @param expression    the expression that was created
+     * @param durationNanos how long it took to create the expression
+     */
+    void expressionCreated(Expression expression, long durationNanos);
+
+    /**
+     * @param expression    the expression that was matched
+     * @param textLength    the length of the text
+     * @param matched       whether the text matched
+     * @param durationNanos how long it took to match the text, or -1 if not measured
+     */
+    void expressionMatched(Expression expression, int textLength, boolean matched, long durationNanos);
+
+    /**
+     * Reported instead of {@link #expressionMatched(Expression, int, boolean, long)}
+     * when matching took longer than the match timeout.
+     *
+     * @param expression the expression that was matched
+     * @param textLength the length of the text
+     * @see ParameterTypeRegistry#setMatchTimeout(long, java.util.concurrent.TimeUnit)
+     */
+    void matchTimedOut(Expression expression, int textLength);
+
+    /**
+     * @param expression    the expression that matched
+     * @param durationNanos how long it took to build the groups, or -1 if not measured
+     */
+    void groupsBuilt(Expression expression, long durationNanos);
+
+    /**
+     * @param parameterType the parameter type that transformed an argument
+     * @param failed        whether the transform failed
+     * @param durationNanos how long the transform took, or -1 if not measured
+     */
+    void parameterTransformed(ParameterType<?> parameterType, boolean failed, long durationNanos);
+
+    /**
+     * @param text          the text (step) that was scanned for parameters
+     * @param durationNanos how long it took to scan the text
+     * @see CucumberExpressionGenerator
+     */
+    void snippetTextScanned(String text, long durationNanos);
+}
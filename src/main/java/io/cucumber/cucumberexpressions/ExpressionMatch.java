@@ -0,0 +1,53 @@
+package io.cucumber.cucumberexpressions;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An expression of an {@link ExpressionSet} that matched a text, with its
+ * arguments. A match can be remembered by the set, so it can't be changed.
+ * <p>
+ * The offsets of the match and of the groups of its arguments are offsets
+ * into the whole text, also when an {@link ExpressionScanner} found the
+ * match inside a larger text.
+ */
+public final class ExpressionMatch {
+    private final Expression expression;
+    private final List<Argument<?>> arguments;
+    private final int start;
+    private final int end;
+
+    ExpressionMatch(Expression expression, List<Argument<?>> arguments, int start, int end) {
+        this.expression = expression;
+        this.arguments = Collections.unmodifiableList(arguments);
+        this.start = start;
+        this.end = end;
+    }
+
+    public Expression getExpression() {
+        return expression;
+    }
+
+    public List<Argument<?>> getArguments() {
+        return arguments;
+    }
+
+    /**
+     * @return the offset of the start of the match in the text
+     */
+    public int getStart() {
+        return start;
+    }
+
+    /**
+     * @return the offset after the end of the match in the text
+     */
+    public int getEnd() {
+        return end;
+    }
+
+    @Override
+    public String toString() {
+        return expression.getSource();
+    }
+}
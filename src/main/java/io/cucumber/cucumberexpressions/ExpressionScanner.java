@@ -0,0 +1,194 @@
+package io.cucumber.cucumberexpressions;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.regex.Matcher;
+
+/**
+ * Finds the expressions of an {@link ExpressionSet} inside a larger text,
+ * e.g. to extract data from log lines or documents with expressions as
+ * templates.
+ * <p>
+ * The matches don't overlap. Where matches overlap, the one that starts
+ * first wins, and of those that start at the same offset, the expression
+ * that was discovered first. The offsets of the matches and their groups
+ * are offsets into the text.
+ * <p>
+ * Each expression is searched for with a single forward pass over the text,
+ * which is only resumed when one of its matches is overtaken by a match of
+ * another expression. The anchors at the start and end of the regexps, or of
+ * each of their top level alternatives, are ignored, and the match timeout
+ * doesn't apply.
+ */
+public final class ExpressionScanner {
+    private final ExpressionSet expressionSet;
+
+    /**
+     * @param expressionSet the expressions to find. They must be {@link CucumberExpression}s
+     *                      or {@link RegularExpression}s, not subclasses, which
+     *                      may match differently.
+     */
+    public ExpressionScanner(ExpressionSet expressionSet) {
+        for (Expression expression : expressionSet.getExpressions()) {
+            if (expression.getClass() != CucumberExpression.class && expression.getClass() != RegularExpression.class) {
+                throw new IllegalArgumentException("Can only find CucumberExpressions and RegularExpressions, not " + expression.getClass().getName());
+            }
+        }
+        this.expressionSet = expressionSet;
+    }
+
+    /**
+     * Finds the matches as the iterator advances, so the text can be scanned
+     * while the matches are being used.
+     *
+     * @param text      the text to search
+     * @param typeHints the type hints for the arguments
+     * @return the matches, in the order of the text
+     */
+    public Iterator<ExpressionMatch> scan(CharSequence text, Type... typeHints) {
+        return new Scan(text, typeHints);
+    }
+
+    /**
+     * @param text      the text to search
+     * @param typeHints the type hints for the arguments
+     * @return all matches, in the order of the text
+     */
+    public List<ExpressionMatch> scanAll(CharSequence text, Type... typeHints) {
+        List<ExpressionMatch> matches = new ArrayList<>();
+        Iterator<ExpressionMatch> scan = scan(text, typeHints);
+        while (scan.hasNext()) {
+            matches.add(scan.next());
+        }
+        return matches;
+    }
+
+    private final class Scan implements Iterator<ExpressionMatch> {
+        private final CharSequence text;
+        private final Type[] typeHints;
+        // The next match of each expression, leftmost first
+        private final PriorityQueue<Candidate> candidates;
+        // The end of the last match
+        private int position;
+        private ExpressionMatch next;
+
+        Scan(CharSequence text, Type[] typeHints) {
+            this.text = text;
+            this.typeHints = typeHints;
+            List<Expression> expressions = expressionSet.getExpressions();
+            this.candidates = new PriorityQueue<>(Math.max(1, expressions.size()));
+            for (int index = 0; index < expressions.size(); index++) {
+                Candidate candidate = new Candidate(index, expressions.get(index), text);
+                if (candidate.find(0)) {
+                    candidates.add(candidate);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = findNext();
+            }
+            return next != null;
+        }
+
+        @Override
+        public ExpressionMatch next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ExpressionMatch match = next;
+            next = null;
+            return match;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        private ExpressionMatch findNext() {
+            while (!candidates.isEmpty()) {
+                Candidate candidate = candidates.poll();
+                if (candidate.start < position) {
+                    // Overtaken by the last match, search again after it
+                    if (candidate.find(position)) {
+                        candidates.add(candidate);
+                    }
+                    continue;
+                }
+                // Build the match before the matcher moves on
+                ExpressionMatch match = candidate.toMatch(text, typeHints);
+                position = candidate.end;
+                // An empty match would be found again at the same offset
+                if (candidate.find(candidate.end > candidate.start ? candidate.end : candidate.end + 1)) {
+                    candidates.add(candidate);
+                }
+                return match;
+            }
+            return null;
+        }
+    }
+
+    private static final class Candidate implements Comparable<Candidate> {
+        private final int index;
+        private final Expression expression;
+        private final TreeRegexp treeRegexp;
+        private final ParameterTypeRegistry parameterTypeRegistry;
+        private final Matcher matcher;
+        private final int textLength;
+        // Resolved on the first match
+        private List<ParameterType<?>> parameterTypes;
+        private int start;
+        private int end;
+
+        Candidate(int index, Expression expression, CharSequence text) {
+            this.index = index;
+            this.expression = expression;
+            if (expression.getClass() == CucumberExpression.class) {
+                CucumberExpression cucumberExpression = (CucumberExpression) expression;
+                this.treeRegexp = cucumberExpression.getTreeRegexp();
+                this.parameterTypeRegistry = cucumberExpression.getParameterTypeRegistry();
+            } else {
+                RegularExpression regularExpression = (RegularExpression) expression;
+                this.treeRegexp = regularExpression.getTreeRegexp();
+                this.parameterTypeRegistry = regularExpression.getParameterTypeRegistry();
+            }
+            this.matcher = treeRegexp.finder(text);
+            this.textLength = text.length();
+        }
+
+        boolean find(int from) {
+            if (from > textLength || !matcher.find(from)) {
+                return false;
+            }
+            start = matcher.start();
+            end = matcher.end();
+            return true;
+        }
+
+        ExpressionMatch toMatch(CharSequence text, Type[] typeHints) {
+            Group group = treeRegexp.build(text, matcher);
+            if (parameterTypes == null) {
+                parameterTypes = expression.getClass() == CucumberExpression.class
+                        ? ((CucumberExpression) expression).resolveParameterTypes(typeHints)
+                        : ((RegularExpression) expression).resolveParameterTypes(text.subSequence(start, end), typeHints);
+            }
+            List<Argument<?>> arguments = Argument.build(treeRegexp, group, parameterTypes, parameterTypeRegistry.getExpressionInstrumentation());
+            return new ExpressionMatch(expression, arguments, start, end);
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            if (start != other.start) {
+                return start < other.start ? -1 : 1;
+            }
+            return index < other.index ? -1 : index == other.index ? 0 : 1;
+        }
+    }
+}
@@ -0,0 +1,408 @@
+package io.cucumber.cucumberexpressions;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A set of expressions to match texts (steps) against, e.g. all step
+ * definitions of a suite.
+ * <p>
+ * Usually a few expressions match most of the steps. The set counts how often
+ * each expression matches and every now and then reorders the expressions so
+ * that {@link #match(String, Type...)} tries the hottest ones first. Use
+ * {@link #matchAll(String, Type...)} to find all matching expressions, e.g. to
+ * detect ambiguous steps. Its result doesn't depend on the order of the
+ * expressions.
+ * <p>
+ * The set can remember texts that matched none of its expressions, so that
+ * matching them again costs a single lookup. Whether a text matches doesn't
+ * change once an expression has been created, so remembered misses stay
+ * valid for the lifetime of the set. To match against other expressions,
+ * create a new set.
+ * <p>
+ * The set can also remember the matches of recurring texts, e.g. the steps
+ * of scenario outlines and backgrounds. A remembered match has the same
+ * arguments as the first time, and transforms them again each time their
+ * value is asked for. The arguments depend on the parameter types and the
+ * default parameter transformer of the registries of the expressions, so
+ * remembered matches are only used while the
+ * {@link ParameterTypeRegistry#getVersion() versions} of the registries stay
+ * the same. Remembered matches are not reported to the
+ * {@link ExpressionInstrumentation}, as no matching is done.
+ * <p>
+ * An expression set can be used by many threads at once.
+ */
+public final class ExpressionSet {
+    // About once in this many matches, the expressions are reordered
+    private static final int REORDER_INTERVAL = 1024;
+
+    private final List<Expression> expressions;
+    // Hits by expression, striped by thread like a StripedCounter
+    private final AtomicLongArray hits;
+    private final AtomicBoolean reordering = new AtomicBoolean();
+    // Texts that matched no expression, or null
+    private final StripedLruCache<String, Boolean> misses;
+    // Matches by text and type hints, or null
+    private final StripedLruCache<MatchKey, CachedMatch> matches;
+    // The registries of the expressions, whose versions the remembered matches depend on
+    private final List<ParameterTypeRegistry> registries;
+    private final StripedCounter matchCacheRequests = new StripedCounter();
+    private final StripedCounter matchCacheHits = new StripedCounter();
+    // Indexes of the expressions, hottest first
+    private volatile int[] order;
+
+    /**
+     * @param expressions the expressions, in the order they were discovered
+     */
+    public ExpressionSet(Collection<? extends Expression> expressions) {
+        this(expressions, 0);
+    }
+
+    /**
+     * @param expressions the expressions, in the order they were discovered
+     * @param missCacheSize the number of texts that matched no expression to
+     *                      remember, or 0 to remember none
+     */
+    public ExpressionSet(Collection<? extends Expression> expressions, int missCacheSize) {
+        this(expressions, missCacheSize, 0);
+    }
+
+    /**
+     * @param expressions    the expressions, in the order they were discovered
+     * @param missCacheSize  the number of texts that matched no expression to
+     *                       remember, or 0 to remember none
+     * @param matchCacheSize the number of matches to remember, or 0 to
+     *                       remember none
+     */
+    public ExpressionSet(Collection<? extends Expression> expressions, int missCacheSize, int matchCacheSize) {
+        if (missCacheSize < 0) {
+            throw new IllegalArgumentException("missCacheSize must not be negative: " + missCacheSize);
+        }
+        if (matchCacheSize < 0) {
+            throw new IllegalArgumentException("matchCacheSize must not be negative: " + matchCacheSize);
+        }
+        this.misses = missCacheSize == 0 ? null : new StripedLruCache<String, Boolean>(missCacheSize);
+        this.matches = matchCacheSize == 0 ? null : new StripedLruCache<>(matchCacheSize, MatchKey.WEIGHER);
+        this.expressions = Collections.unmodifiableList(new ArrayList<Expression>(expressions));
+        this.registries = registries(this.expressions);
+        this.hits = new AtomicLongArray(StripedCounter.STRIPES * this.expressions.size());
+        int[] order = new int[this.expressions.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        this.order = order;
+    }
+
+    /**
+     * @return the expressions, in the order they were discovered
+     */
+    public List<Expression> getExpressions() {
+        return expressions;
+    }
+
+    /**
+     * Matches the text against the expressions, hottest first.
+     *
+     * @param text      the text (step) to match
+     * @param typeHints the type hints for the arguments
+     * @return the first expression that matched, or null if none did
+     */
+    public ExpressionMatch match(String text, Type... typeHints) {
+        if (matches == null) {
+            return find(text, typeHints);
+        }
+        matchCacheRequests.increment();
+        // Read before matching, so a match made while the registries change isn't used later
+        long version = registriesVersion();
+        CachedMatch cachedMatch = matches.get(new MatchKey(text, typeHints));
+        if (cachedMatch != null && cachedMatch.version == version) {
+            matchCacheHits.increment();
+            return cachedMatch.match;
+        }
+        ExpressionMatch match = find(text, typeHints);
+        if (match != null) {
+            // The caller may change the type hints array later
+            matches.put(new MatchKey(text, typeHints.clone()), new CachedMatch(match, version));
+        }
+        return match;
+    }
+
+    private static List<ParameterTypeRegistry> registries(List<Expression> expressions) {
+        Map<ParameterTypeRegistry, Boolean> registries = new IdentityHashMap<>();
+        for (Expression expression : expressions) {
+            if (expression instanceof CucumberExpression) {
+                registries.put(((CucumberExpression) expression).getParameterTypeRegistry(), Boolean.TRUE);
+            } else if (expression instanceof RegularExpression) {
+                registries.put(((RegularExpression) expression).getParameterTypeRegistry(), Boolean.TRUE);
+            }
+        }
+        return new ArrayList<>(registries.keySet());
+    }
+
+    /**
+     * @return a number that changes whenever the version of one of the registries does
+     */
+    private long registriesVersion() {
+        long version = 0;
+        // Versions only increase, so their sum changes whenever one of them does
+        for (ParameterTypeRegistry registry : registries) {
+            version += registry.getVersion();
+        }
+        return version;
+    }
+
+    private ExpressionMatch find(String text, Type... typeHints) {
+        if (isKnownMiss(text)) {
+            return null;
+        }
+        ExpressionMatch match = scan(text, typeHints);
+        if (match == null) {
+            miss(text);
+        }
+        return match;
+    }
+
+    /**
+     * Matches any text against the expressions, hottest first, without
+     * copying it to a string. Doesn't use the caches, which are keyed by
+     * string.
+     *
+     * @return the first expression that matched, or null if none did
+     */
+    ExpressionMatch scan(CharSequence text, Type... typeHints) {
+        for (int index : order) {
+            Expression expression = expressions.get(index);
+            List<Argument<?>> arguments = match(expression, text, typeHints);
+            if (arguments != null) {
+                hit(index);
+                return new ExpressionMatch(expression, arguments, 0, text.length());
+            }
+        }
+        return null;
+    }
+
+    private static List<Argument<?>> match(Expression expression, CharSequence text, Type... typeHints) {
+        // Subclasses may override match, so only use the shortcut for the classes themselves
+        if (expression.getClass() == CucumberExpression.class) {
+            return ((CucumberExpression) expression).matchSequence(text, typeHints);
+        }
+        if (expression.getClass() == RegularExpression.class) {
+            return ((RegularExpression) expression).matchSequence(text, typeHints);
+        }
+        return expression.match(text.toString(), typeHints);
+    }
+
+    /**
+     * Matches the text against all the expressions.
+     *
+     * @param text      the text (step) to match
+     * @param typeHints the type hints for the arguments
+     * @return all expressions that matched, in the order they were discovered
+     */
+    public List<ExpressionMatch> matchAll(String text, Type... typeHints) {
+        List<ExpressionMatch> matches = new ArrayList<>();
+        if (isKnownMiss(text)) {
+            return matches;
+        }
+        for (int index = 0; index < expressions.size(); index++) {
+            Expression expression = expressions.get(index);
+            List<Argument<?>> arguments = expression.match(text, typeHints);
+            if (arguments != null) {
+                hit(index);
+                matches.add(new ExpressionMatch(expression, arguments, 0, text.length()));
+            }
+        }
+        if (matches.isEmpty()) {
+            miss(text);
+        }
+        return matches;
+    }
+
+    /**
+     * Matches all steps of a suite against all the expressions, in parallel.
+     *
+     * @param steps the texts of the steps
+     * @return the undefined and ambiguous steps and the unused expressions
+     */
+    public SuiteReport analyze(Collection<String> steps) {
+        ForkJoinPool pool = new ForkJoinPool();
+        try {
+            return analyze(steps, pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Like {@link #analyze(Collection)}, but uses the given pool.
+     *
+     * @param steps the texts of the steps
+     * @param pool  the pool to match the steps in
+     * @return the undefined and ambiguous steps and the unused expressions
+     */
+    public SuiteReport analyze(Collection<String> steps, ForkJoinPool pool) {
+        long start = System.nanoTime();
+        // Steps of scenario outlines and backgrounds recur, match them once
+        List<String> uniqueSteps = new ArrayList<>(new LinkedHashSet<>(steps));
+        SuiteAnalysisTask.Result result = pool.invoke(new SuiteAnalysisTask(this, uniqueSteps, 0, uniqueSteps.size()));
+        List<Expression> unusedExpressions = new ArrayList<>();
+        for (int index = result.usedExpressions.nextClearBit(0); index < expressions.size(); index = result.usedExpressions.nextClearBit(index + 1)) {
+            unusedExpressions.add(expressions.get(index));
+        }
+        return new SuiteReport(
+                result.undefinedSteps,
+                result.ambiguousSteps,
+                unusedExpressions,
+                uniqueSteps.size(),
+                result.matchAttempts,
+                System.nanoTime() - start
+        );
+    }
+
+    boolean isKnownMiss(String text) {
+        return misses != null && misses.get(text) != null;
+    }
+
+    void miss(String text) {
+        if (misses != null) {
+            misses.put(text, Boolean.TRUE);
+        }
+    }
+
+    private void hit(int index) {
+        hits.getAndIncrement(StripedCounter.stripe() * expressions.size() + index);
+        if (ThreadLocalRandom.current().nextInt(REORDER_INTERVAL) == 0) {
+            reorder();
+        }
+    }
+
+    /**
+     * Puts the hottest expressions first, and halves the hit counts so that
+     * the order follows changes in the steps being matched.
+     */
+    void reorder() {
+        // One thread reorders, the others carry on with the old order
+        if (!reordering.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int size = expressions.size();
+            final long[] counts = new long[size];
+            for (int cell = 0; cell < hits.length(); cell++) {
+                long count = hits.get(cell);
+                counts[cell % size] += count;
+                hits.getAndAdd(cell, -(count / 2));
+            }
+            Integer[] indexes = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                indexes[i] = i;
+            }
+            // Stable, so expressions with as many hits stay in discovery order
+            Arrays.sort(indexes, new Comparator<Integer>() {
+                @Override
+                public int compare(Integer a, Integer b) {
+                    return Long.compare(counts[b], counts[a]);
+                }
+            });
+            int[] order = new int[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = indexes[i];
+            }
+            this.order = order;
+        } finally {
+            reordering.set(false);
+        }
+    }
+
+    /**
+     * @return the current statistics of the match cache
+     */
+    public MatchCacheStatistics getMatchCacheStatistics() {
+        if (matches == null) {
+            return new MatchCacheStatistics(0, 0, 0, 0);
+        }
+        return new MatchCacheStatistics(matches.size(), matchCacheRequests.sum(), matchCacheHits.sum(), matches.weight());
+    }
+
+    /**
+     * @return the expressions, in the order {@link #match(String, Type...)} tries them
+     */
+    List<Expression> getCandidates() {
+        List<Expression> candidates = new ArrayList<>(order.length);
+        for (int index : order) {
+            candidates.add(expressions.get(index));
+        }
+        return candidates;
+    }
+
+    private static final class CachedMatch {
+        private final ExpressionMatch match;
+        // The version of the registries when the text was matched
+        private final long version;
+
+        CachedMatch(ExpressionMatch match, long version) {
+            this.match = match;
+            this.version = version;
+        }
+    }
+
+    private static final class MatchKey {
+        // Rough sizes of the objects in a cache entry on a 64 bit JVM
+        private static final int ENTRY_BYTES = 160;
+        private static final int TYPE_HINT_BYTES = 8;
+        private static final int ARGUMENT_BYTES = 24;
+        private static final int GROUP_BYTES = 64;
+
+        static final StripedLruCache.Weigher<MatchKey, CachedMatch> WEIGHER = new StripedLruCache.Weigher<MatchKey, CachedMatch>() {
+            @Override
+            public long weigh(MatchKey key, CachedMatch cachedMatch) {
+                long bytes = ENTRY_BYTES + 2L * key.text.length() + TYPE_HINT_BYTES * key.typeHints.length;
+                for (Argument<?> argument : cachedMatch.match.getArguments()) {
+                    bytes += ARGUMENT_BYTES + GROUP_BYTES * countGroups(argument.getGroup());
+                }
+                return bytes;
+            }
+
+            private int countGroups(Group group) {
+                int groups = 1;
+                for (Group child : group.getChildren()) {
+                    groups += countGroups(child);
+                }
+                return groups;
+            }
+        };
+
+        private final String text;
+        private final Type[] typeHints;
+
+        MatchKey(String text, Type[] typeHints) {
+            this.text = text;
+            this.typeHints = typeHints;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            MatchKey other = (MatchKey) o;
+            return text.equals(other.text) && Arrays.equals(typeHints, other.typeHints);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * text.hashCode() + Arrays.hashCode(typeHints);
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package io.cucumber.cucumberexpressions;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps counts and latency histograms by expression source and by parameter
+ * type name. Recording doesn't lock, so it can be used while steps are
+ * matched on many threads.
+ * <pre>
+ * ExpressionStatistics statistics = new ExpressionStatistics();
+ * parameterTypeRegistry.setExpressionInstrumentation(statistics);
+ * ...
+ * for (ExpressionStatistics.ExpressionMetrics metrics : statistics.getExpressionMetrics().values()) {
+ *     System.out.println(metrics);
+ * }
+ * </pre>
+ */
+public final class ExpressionStatistics implements ExpressionInstrumentation {
+    private final ConcurrentMap<String, ExpressionMetrics> expressionMetrics = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ParameterTypeMetrics> parameterTypeMetrics = new ConcurrentHashMap<>();
+
+    private final LatencyHistogram snippetScanLatency = new LatencyHistogram();
+
+    @Override
+    public void parameterTypesResolved(Expression expression, long durationNanos) {
+        if (durationNanos != LatencySampling.NOT_MEASURED) {
+            expressionMetrics(expression.getSource()).resolutionLatency.record(durationNanos);
+        }
+    }
+
+    @Override
+    public void regexpCompiled(Expression expression, long durationNanos) {
+        expressionMetrics(expression.getSource()).compileNanos.add(durationNanos);
+    }
+
+    @Override
+    public void expressionCreated(Expression expression, long durationNanos) {
+        ExpressionMetrics metrics = expressionMetrics(expression.getSource());
+        metrics.creations.increment();
+        metrics.creationNanos.add(durationNanos);
+    }
+
+    @Override
+    public void expressionMatched(Expression expression, int textLength, boolean matched, long durationNanos) {
+        ExpressionMetrics metrics = expressionMetrics(expression.getSource());
+        (matched ? metrics.hits : metrics.misses).increment();
+        if (durationNanos != LatencySampling.NOT_MEASURED) {
+            metrics.matchLatency.record(durationNanos);
+        }
+    }
+
+    @Override
+    public void matchTimedOut(Expression expression, int textLength) {
+        expressionMetrics(expression.getSource()).timeouts.increment();
+    }
+
+    @Override
+    public void groupsBuilt(Expression expression, long durationNanos) {
+        if (durationNanos != LatencySampling.NOT_MEASURED) {
+            expressionMetrics(expression.getSource()).groupBuildLatency.record(durationNanos);
+        }
+    }
+
+    @Override
+    public void parameterTransformed(ParameterType<?> parameterType, boolean failed, long durationNanos) {
+        ParameterTypeMetrics metrics = parameterTypeMetrics.get(parameterType.getName());
+        if (metrics == null) {
+            metrics = new ParameterTypeMetrics(parameterType.getName());
+            ParameterTypeMetrics existing = parameterTypeMetrics.putIfAbsent(parameterType.getName(), metrics);
+            if (existing != null) {
+                metrics = existing;
+            }
+        }
+        (failed ? metrics.failures : metrics.successes).increment();
+        if (durationNanos != LatencySampling.NOT_MEASURED) {
+            metrics.transformLatency.record(durationNanos);
+        }
+    }
+
+    @Override
+    public void snippetTextScanned(String text, long durationNanos) {
+        snippetScanLatency.record(durationNanos);
+    }
+
+    private ExpressionMetrics expressionMetrics(String source) {
+        ExpressionMetrics metrics = expressionMetrics.get(source);
+        if (metrics == null) {
+            metrics = new ExpressionMetrics(source);
+            ExpressionMetrics existing = expressionMetrics.putIfAbsent(source, metrics);
+            if (existing != null) {
+                metrics = existing;
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * @return the metrics by expression source
+     */
+    public Map<String, ExpressionMetrics> getExpressionMetrics() {
+        return Collections.<String, ExpressionMetrics>unmodifiableMap(expressionMetrics);
+    }
+
+    /**
+     * @return the metrics by parameter type name. Anonymous parameter types
+     * are named {@code anonymous}.
+     */
+    public Map<String, ParameterTypeMetrics> getParameterTypeMetrics() {
+        return Collections.<String, ParameterTypeMetrics>unmodifiableMap(parameterTypeMetrics);
+    }
+
+    /**
+     * @return the latencies of scanning texts for snippets
+     */
+    public LatencyHistogram getSnippetScanLatency() {
+        return snippetScanLatency;
+    }
+
+    public static final class ExpressionMetrics {
+        private final String source;
+        private final StripedCounter creations = new StripedCounter();
+        private final StripedCounter creationNanos = new StripedCounter();
+        private final StripedCounter compileNanos = new StripedCounter();
+        private final LatencyHistogram resolutionLatency = new LatencyHistogram();
+        private final StripedCounter hits = new StripedCounter();
+        private final StripedCounter misses = new StripedCounter();
+        private final StripedCounter timeouts = new StripedCounter();
+        private final LatencyHistogram matchLatency = new LatencyHistogram();
+        private final LatencyHistogram groupBuildLatency = new LatencyHistogram();
+
+        private ExpressionMetrics(String source) {
+            this.source = source;
+        }
+
+        public String getSource() {
+            return source;
+        }
+
+        public long getCreations() {
+            return creations.sum();
+        }
+
+        public long getCreationNanos() {
+            return creationNanos.sum();
+        }
+
+        /**
+         * @return the part of {@link #getCreationNanos()} spent compiling the regexp
+         */
+        public long getCompileNanos() {
+            return compileNanos.sum();
+        }
+
+        /**
+         * @return the latencies of resolving parameter types. Regular
+         * expressions resolve them for each match, so only a sample is kept
+         * for those.
+         */
+        public LatencyHistogram getResolutionLatency() {
+            return resolutionLatency;
+        }
+
+        public long getAttempts() {
+            return getHits() + getMisses() + getTimeouts();
+        }
+
+        public long getHits() {
+            return hits.sum();
+        }
+
+        public long getMisses() {
+            return misses.sum();
+        }
+
+        /**
+         * @return the number of matches that took longer than the match
+         * timeout. They are neither hits nor misses.
+         */
+        public long getTimeouts() {
+            return timeouts.sum();
+        }
+
+        /**
+         * @return the latencies of a sample of the matches
+         */
+        public LatencyHistogram getMatchLatency() {
+            return matchLatency;
+        }
+
+        /**
+         * @return the latencies of building the groups of a sample of the hits
+         */
+        public LatencyHistogram getGroupBuildLatency() {
+            return groupBuildLatency;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d hits, %d misses, %d timeouts, p50 < %d ns, p99 < %d ns",
+                    source,
+                    getHits(),
+                    getMisses(),
+                    getTimeouts(),
+                    matchLatency.getPercentileUpperBound(50),
+                    matchLatency.getPercentileUpperBound(99)
+            );
+        }
+    }
+
+    public static final class ParameterTypeMetrics {
+        private final String name;
+        private final StripedCounter successes = new StripedCounter();
+        private final StripedCounter failures = new StripedCounter();
+        private final LatencyHistogram transformLatency = new LatencyHistogram();
+
+        private ParameterTypeMetrics(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getTransforms() {
+            return successes.sum() + failures.sum();
+        }
+
+        public long getFailures() {
+            return failures.sum();
+        }
+
+        /**
+         * @return the latencies of a sample of the transforms
+         */
+        public LatencyHistogram getTransformLatency() {
+            return transformLatency;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("{%s}: %d transforms, %d failures, p50 < %d ns, p99 < %d ns",
+                    name,
+                    getTransforms(),
+                    getFailures(),
+                    transformLatency.getPercentileUpperBound(50),
+                    transformLatency.getPercentileUpperBound(99)
+            );
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package io.cucumber.cucumberexpressions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A generated expression split into literal text and the slots between them
+ * where parameter type names go, so it can be rendered without a formatter.
+ */
+final class ExpressionTemplate {
+    private final String[] literals;
+    private final int literalsLength;
+
+    /**
+     * @param literals the text before, between and after the slots, so there
+     *                 is one literal more than there are slots
+     */
+    ExpressionTemplate(List<String> literals) {
+        if (literals.isEmpty()) throw new IllegalArgumentException("literals cannot be empty");
+        this.literals = literals.toArray(new String[0]);
+        int length = 0;
+        for (String literal : this.literals) {
+            length += literal.length();
+        }
+        this.literalsLength = length;
+    }
+
+    /**
+     * Splits a {@link String#format(String, Object...)} template made of
+     * {@code %s} slots and {@code %%} escapes.
+     *
+     * @param format the template
+     * @return the template split into literals
+     */
+    static ExpressionTemplate parse(String format) {
+        ExpressionTemplate template = tryParse(format);
+        if (template == null) {
+            throw new IllegalArgumentException(String.format("Unsupported format '%s'. Only %%s and %%%% are supported.", format));
+        }
+        return template;
+    }
+
+    /**
+     * Like {@link #parse(String)}, for templates that may use other
+     * conversions.
+     *
+     * @param format the template
+     * @return the template split into literals, or null if it has other
+     * conversions than {@code %s} and {@code %%}
+     */
+    static ExpressionTemplate tryParse(String format) {
+        List<String> literals = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < format.length(); i++) {
+            char c = format.charAt(i);
+            if (c != '%') {
+                literal.append(c);
+                continue;
+            }
+            char conversion = ++i < format.length() ? format.charAt(i) : 0;
+            if (conversion == '%') {
+                literal.append('%');
+            } else if (conversion == 's') {
+                literals.add(literal.toString());
+                literal.setLength(0);
+            } else {
+                return null;
+            }
+        }
+        literals.add(literal.toString());
+        return new ExpressionTemplate(literals);
+    }
+
+    int getSlots() {
+        return literals.length - 1;
+    }
+
+    String render(List<ParameterType<?>> parameterTypes) {
+        if (parameterTypes.size() < getSlots()) {
+            throw new IllegalArgumentException(String.format("Expected %d parameter types but got %d", getSlots(), parameterTypes.size()));
+        }
+        int length = literalsLength;
+        for (int i = 0; i < getSlots(); i++) {
+            length += String.valueOf(parameterTypes.get(i).getName()).length();
+        }
+        StringBuilder source = new StringBuilder(length).append(literals[0]);
+        for (int i = 1; i < literals.length; i++) {
+            source.append(parameterTypes.get(i - 1).getName()).append(literals[i]);
+        }
+        return source.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return Arrays.equals(literals, ((ExpressionTemplate) o).literals);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(literals);
+    }
+}
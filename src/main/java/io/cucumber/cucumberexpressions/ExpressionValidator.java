@@ -0,0 +1,13 @@
+package io.cucumber.cucumberexpressions;
+
+/**
+ * Checks the expressions created by an {@link ExpressionFactory}, for example
+ * with {@link RegexpComplexityAnalyzer#rejecting(ComplexityReport.Cost)}.
+ */
+public interface ExpressionValidator {
+    /**
+     * @param expression the expression that was created
+     * @throws CucumberExpressionException when the expression is not valid
+     */
+    void validate(Expression expression);
+}
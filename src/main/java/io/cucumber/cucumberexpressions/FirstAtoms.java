@@ -0,0 +1,87 @@
+package io.cucumber.cucumberexpressions;
+
+import io.cucumber.cucumberexpressions.RegexpNode.Alternation;
+import io.cucumber.cucumberexpressions.RegexpNode.Atom;
+import io.cucumber.cucumberexpressions.RegexpNode.AtomKind;
+import io.cucumber.cucumberexpressions.RegexpNode.Group;
+import io.cucumber.cucumberexpressions.RegexpNode.Quantified;
+import io.cucumber.cucumberexpressions.RegexpNode.Sequence;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The single character atoms that could match the first character of a
+ * {@link RegexpNode}, and whether the node could match no characters at all.
+ * Zero width assertions match no characters; they can only make a match fail.
+ */
+final class FirstAtoms {
+    static final FirstAtoms UNKNOWN = new FirstAtoms(null, false);
+    static final FirstAtoms EMPTY = new FirstAtoms(Collections.<Atom>emptyList(), true);
+
+    // Or null if unknown
+    final List<Atom> atoms;
+    final boolean nullable;
+
+    private FirstAtoms(List<Atom> atoms, boolean nullable) {
+        this.atoms = atoms;
+        this.nullable = nullable;
+    }
+
+    static FirstAtoms of(RegexpNode node) {
+        if (node instanceof Sequence) {
+            List<Atom> atoms = new ArrayList<>();
+            for (RegexpNode item : ((Sequence) node).items) {
+                FirstAtoms first = of(item);
+                if (first.atoms == null) return UNKNOWN;
+                atoms.addAll(first.atoms);
+                if (!first.nullable) return new FirstAtoms(atoms, false);
+            }
+            return new FirstAtoms(atoms, true);
+        }
+        if (node instanceof Alternation) {
+            List<Atom> atoms = new ArrayList<>();
+            boolean nullable = false;
+            for (RegexpNode alternative : ((Alternation) node).alternatives) {
+                FirstAtoms first = of(alternative);
+                if (first.atoms == null) return UNKNOWN;
+                atoms.addAll(first.atoms);
+                nullable |= first.nullable;
+            }
+            return new FirstAtoms(atoms, nullable);
+        }
+        if (node instanceof Group) {
+            Group group = (Group) node;
+            return group.kind.isLookaround() ? EMPTY : of(group.body);
+        }
+        if (node instanceof Quantified) {
+            Quantified quantified = (Quantified) node;
+            FirstAtoms first = of(quantified.body);
+            if (first.atoms == null) return UNKNOWN;
+            return new FirstAtoms(first.atoms, first.nullable || quantified.min == 0);
+        }
+        Atom atom = (Atom) node;
+        if (atom.kind == AtomKind.BOUNDARY) {
+            return EMPTY;
+        }
+        return atom.isSingleCharacter() ? new FirstAtoms(Collections.singletonList(atom), false) : UNKNOWN;
+    }
+
+    /**
+     * @param follow the atoms that could match the first character after the
+     *               node, or null if unknown
+     * @return the atoms that could match the first character of the node
+     * followed by {@code follow}, or null if unknown
+     */
+    List<Atom> followedBy(List<Atom> follow) {
+        return nullable ? union(atoms, follow) : atoms;
+    }
+
+    static List<Atom> union(List<Atom> a, List<Atom> b) {
+        if (a == null || b == null) return null;
+        List<Atom> atoms = new ArrayList<>(a);
+        atoms.addAll(b);
+        return atoms;
+    }
+}
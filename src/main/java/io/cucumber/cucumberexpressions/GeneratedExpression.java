@@ -1,17 +1,17 @@
 package io.cucumber.cucumberexpressions;
 
-import java.text.Collator;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+
+import static java.util.Arrays.asList;
 
 
 public class GeneratedExpression {
-    private static final Collator ENGLISH_COLLATOR = Collator.getInstance(Locale.ENGLISH);
-    private static final String JAVA_KEYWORDS[] = {
+    private static final Set<String> JAVA_KEYWORDS = new HashSet<>(asList(
             "abstract", "assert", "boolean", "break", "byte", "case",
             "catch", "char", "class", "const", "continue",
             "default", "do", "double", "else", "extends",
@@ -23,26 +23,44 @@ public class GeneratedExpression {
             "switch", "synchronized", "this", "throw", "throws",
             "transient", "true", "try", "void", "volatile",
             "while"
-    };
-    private final String expressionTemplate;
+    ));
+    // Or null, when the template is rendered with String.format
+    private final ExpressionTemplate expressionTemplate;
+    // Or null, when the template was split
+    private final String format;
     private final List<ParameterType<?>> parameterTypes;
 
+    /**
+     * @param expressionTemplate a {@link String#format(String, Object...)} template
+     *                           with the parameter type names as arguments
+     * @param parameterTypes     the parameter types in the expression
+     */
     public GeneratedExpression(String expressionTemplate, List<ParameterType<?>> parameterTypes) {
+        this.expressionTemplate = ExpressionTemplate.tryParse(expressionTemplate);
+        // Templates with other conversions than %s and %% are rendered as before
+        this.format = this.expressionTemplate == null ? expressionTemplate : null;
+        this.parameterTypes = parameterTypes;
+    }
+
+    GeneratedExpression(ExpressionTemplate expressionTemplate, List<ParameterType<?>> parameterTypes) {
         this.expressionTemplate = expressionTemplate;
+        this.format = null;
         this.parameterTypes = parameterTypes;
     }
 
     private static boolean isJavaKeyword(String keyword) {
-        return (Arrays.binarySearch(JAVA_KEYWORDS, keyword, ENGLISH_COLLATOR) >= 0);
+        return JAVA_KEYWORDS.contains(keyword);
     }
 
     public String getSource() {
+        if (expressionTemplate != null) {
+            return expressionTemplate.render(parameterTypes);
+        }
         List<String> parameterTypeNames = new ArrayList<>();
         for (ParameterType<?> parameterType : parameterTypes) {
-            String name = parameterType.getName();
-            parameterTypeNames.add(name);
+            parameterTypeNames.add(parameterType.getName());
         }
-        return String.format(expressionTemplate, parameterTypeNames.toArray());
+        return String.format(format, parameterTypeNames.toArray());
     }
 
     private String getParameterName(String typeName, Map<String, Integer> usageByTypeName) {
@@ -7,21 +7,49 @@ import static java.util.Collections.singletonList;
 
 public class Group {
     private final List<Group> children;
-    private final String value;
+    private final CharSequence text;
     private final int start;
     private final int end;
+    private String value;
 
     public Group(String value, int start, int end, List<Group> children) {
         this.value = value;
+        this.text = null;
         this.start = start;
         this.end = end;
         this.children = children;
     }
 
+    private Group(CharSequence text, int start, int end, List<Group> children) {
+        this.text = text;
+        this.start = start;
+        this.end = end;
+        this.children = children;
+    }
+
+    /**
+     * Creates a group that refers to a region of the matched text. The value
+     * is only extracted from the text when it is asked for.
+     */
+    static Group fromMatch(CharSequence text, int start, int end, List<Group> children) {
+        return new Group(text, start, end, children);
+    }
+
     public String getValue() {
+        if (value == null && text != null && start != -1) {
+            value = text.subSequence(start, end).toString();
+        }
         return value;
     }
 
+    /**
+     * @return the matched text the start and end offsets refer to, or null
+     * if the group was not created by matching text
+     */
+    CharSequence getText() {
+        return text;
+    }
+
     public int getStart() {
         return start;
     }
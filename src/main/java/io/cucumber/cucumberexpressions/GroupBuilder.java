@@ -5,6 +5,13 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.regex.Matcher;
 
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * Builds the {@link Group} tree of a match. Group builders are changed while
+ * {@link TreeRegexp} parses a regexp and are immutable once it's done, so
+ * they can be shared.
+ */
 class GroupBuilder {
     private List<GroupBuilder> groupBuilders = new ArrayList<>();
     private boolean capturing = true;
@@ -14,13 +21,13 @@ class GroupBuilder {
         groupBuilders.add(groupBuilder);
     }
 
-    Group build(Matcher matcher, Iterator<Integer> groupIndices) {
+    Group build(CharSequence text, Matcher matcher, Iterator<Integer> groupIndices) {
         int groupIndex = groupIndices.next();
         List<Group> children = new ArrayList<>(groupBuilders.size());
         for (GroupBuilder childGroupBuilder : groupBuilders) {
-            children.add(childGroupBuilder.build(matcher, groupIndices));
+            children.add(childGroupBuilder.build(text, matcher, groupIndices));
         }
-        return new Group(matcher.group(groupIndex), matcher.start(groupIndex), matcher.end(groupIndex), children);
+        return Group.fromMatch(text, matcher.start(groupIndex), matcher.end(groupIndex), children);
     }
 
     void setNonCapturing() {
@@ -48,4 +55,11 @@ class GroupBuilder {
     void setSource(String source) {
         this.source = source;
     }
+
+    void freeze() {
+        groupBuilders = unmodifiableList(groupBuilders);
+        for (GroupBuilder groupBuilder : groupBuilders) {
+            groupBuilder.freeze();
+        }
+    }
 }
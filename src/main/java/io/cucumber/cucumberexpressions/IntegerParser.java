@@ -0,0 +1,117 @@
+package io.cucumber.cucumberexpressions;
+
+/**
+ * Parses integers directly from a region of a {@link CharSequence}.
+ * <p>
+ * Plain decimal numbers with an optional minus sign - which is what the
+ * built in integer regexps match - are parsed eight digits at a time
+ * without creating a substring. Everything else (hex, octal, explicit plus
+ * signs, very long or out of range numbers) falls back to the
+ * {@code decode} methods so results and error messages are unchanged.
+ */
+final class IntegerParser {
+    // 18 digits always fit in a long, so the fast path never overflows
+    private static final int MAX_FAST_DIGITS = 18;
+    // Fast path results are always within +/- 10^18, so this is never a valid result
+    private static final long NOT_DECIMAL = Long.MIN_VALUE;
+
+    private IntegerParser() {
+    }
+
+    static byte parseByte(CharSequence s, int start, int end) {
+        long value = parseDecimal(s, start, end);
+        if (value == NOT_DECIMAL || value < Byte.MIN_VALUE || value > Byte.MAX_VALUE) {
+            return Byte.decode(s.subSequence(start, end).toString());
+        }
+        return (byte) value;
+    }
+
+    static short parseShort(CharSequence s, int start, int end) {
+        long value = parseDecimal(s, start, end);
+        if (value == NOT_DECIMAL || value < Short.MIN_VALUE || value > Short.MAX_VALUE) {
+            return Short.decode(s.subSequence(start, end).toString());
+        }
+        return (short) value;
+    }
+
+    static int parseInt(CharSequence s, int start, int end) {
+        long value = parseDecimal(s, start, end);
+        if (value == NOT_DECIMAL || value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            return Integer.decode(s.subSequence(start, end).toString());
+        }
+        return (int) value;
+    }
+
+    static long parseLong(CharSequence s, int start, int end) {
+        long value = parseDecimal(s, start, end);
+        if (value == NOT_DECIMAL) {
+            return Long.decode(s.subSequence(start, end).toString());
+        }
+        return value;
+    }
+
+    private static long parseDecimal(CharSequence s, int start, int end) {
+        int i = start;
+        boolean negative = i < end && s.charAt(i) == '-';
+        if (negative) {
+            i++;
+        }
+        int digits = end - i;
+        if (digits == 0 || digits > MAX_FAST_DIGITS) {
+            return NOT_DECIMAL;
+        }
+        // decode treats a leading zero as an octal prefix
+        if (digits > 1 && s.charAt(i) == '0') {
+            return NOT_DECIMAL;
+        }
+
+        long value = 0;
+        for (; end - i >= 8; i += 8) {
+            long chunk = readEightAsciiChars(s, i);
+            if (chunk < 0 || !isEightDigits(chunk)) {
+                return NOT_DECIMAL;
+            }
+            value = value * 100000000 + parseEightDigits(chunk);
+        }
+        for (; i < end; i++) {
+            int digit = s.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return NOT_DECIMAL;
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Packs eight chars into a long, first char in the lowest byte.
+     *
+     * @return the packed chars or -1 if any of them is not ASCII
+     */
+    private static long readEightAsciiChars(CharSequence s, int offset) {
+        long chunk = 0;
+        for (int j = 0; j < 8; j++) {
+            char c = s.charAt(offset + j);
+            if (c > 0x7F) {
+                return -1;
+            }
+            chunk |= (long) c << (j << 3);
+        }
+        return chunk;
+    }
+
+    private static boolean isEightDigits(long chunk) {
+        // Every byte must be 0x30-0x39: the high nibble is 3 and adding 6 doesn't carry into it
+        return ((chunk & 0xF0F0F0F0F0F0F0F0L) | (((chunk + 0x0606060606060606L) & 0xF0F0F0F0F0F0F0F0L) >>> 4))
+                == 0x3333333333333333L;
+    }
+
+    private static int parseEightDigits(long chunk) {
+        long value = chunk - 0x3030303030303030L;
+        // Combine adjacent digits into pairs, then the pairs into a single number
+        value = (value * 10) + (value >>> 8);
+        value = (((value & 0x000000FF000000FFL) * (100 + (1000000L << 32)))
+                + (((value >>> 16) & 0x000000FF000000FFL) * (1 + (10000L << 32)))) >>> 32;
+        return (int) value;
+    }
+}
@@ -0,0 +1,75 @@
+package io.cucumber.cucumberexpressions;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts latencies in buckets that double in size: bucket {@code i} counts
+ * latencies from {@code 2^i} up to {@code 2^(i+1)} nanoseconds. Like
+ * {@link StripedCounter}, every thread records into its own stripe.
+ */
+public final class LatencyHistogram {
+    /**
+     * The last bucket also counts everything above {@code 2^40} nanoseconds,
+     * which is about 18 minutes.
+     */
+    public static final int BUCKETS = 41;
+
+    private final AtomicLongArray counts = new AtomicLongArray(StripedCounter.STRIPES * BUCKETS);
+
+    void record(long nanos) {
+        int bucket = Math.min(63 - Long.numberOfLeadingZeros(nanos | 1), BUCKETS - 1);
+        counts.getAndIncrement(StripedCounter.stripe() * BUCKETS + bucket);
+    }
+
+    /**
+     * @return the number of latencies in each bucket
+     */
+    public long[] getCounts() {
+        long[] result = new long[BUCKETS];
+        for (int stripe = 0; stripe < StripedCounter.STRIPES; stripe++) {
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                result[bucket] += counts.get(stripe * BUCKETS + bucket);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of recorded latencies
+     */
+    public long getCount() {
+        long count = 0;
+        for (long bucketCount : getCounts()) {
+            count += bucketCount;
+        }
+        return count;
+    }
+
+    /**
+     * @param percentile a percentile between 0 and 100
+     * @return the upper bound in nanoseconds of the bucket that contains the
+     * percentile, or 0 if nothing was recorded
+     */
+    public long getPercentileUpperBound(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100: " + percentile);
+        }
+        long[] bucketCounts = getCounts();
+        long count = 0;
+        for (long bucketCount : bucketCounts) {
+            count += bucketCount;
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(count * percentile / 100);
+        long seen = 0;
+        int bucket = 0;
+        while (bucket < BUCKETS - 1) {
+            seen += bucketCounts[bucket];
+            if (seen >= rank && seen > 0) break;
+            bucket++;
+        }
+        return bucket == BUCKETS - 1 ? Long.MAX_VALUE : (2L << bucket) - 1;
+    }
+}
@@ -0,0 +1,31 @@
+package io.cucumber.cucumberexpressions;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides which calls to an {@link ExpressionInstrumentation} are timed.
+ * Reading the clock costs about as much as matching a short step, so only a
+ * random sample of the calls is timed.
+ */
+final class LatencySampling {
+    static final long NOT_MEASURED = -1;
+    private static final int INTERVAL = 16;
+    private static final long NOT_STARTED = Long.MIN_VALUE;
+
+    private LatencySampling() {
+    }
+
+    /**
+     * @return the start time, or a marker if this call isn't timed
+     */
+    static long start() {
+        return ThreadLocalRandom.current().nextInt(INTERVAL) == 0 ? System.nanoTime() : NOT_STARTED;
+    }
+
+    /**
+     * @return the nanoseconds since {@code start}, or {@link #NOT_MEASURED}
+     */
+    static long elapsed(long start) {
+        return start == NOT_STARTED ? NOT_MEASURED : System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,53 @@
+package io.cucumber.cucumberexpressions;
+
+/**
+ * Reports how well the match cache of an {@link ExpressionSet} works, and
+ * roughly how much heap it takes.
+ */
+public final class MatchCacheStatistics {
+    private final int entries;
+    private final long requests;
+    private final long hits;
+    private final long estimatedBytes;
+
+    MatchCacheStatistics(int entries, long requests, long hits, long estimatedBytes) {
+        this.entries = entries;
+        this.requests = requests;
+        this.hits = hits;
+        this.estimatedBytes = estimatedBytes;
+    }
+
+    /**
+     * @return the number of cached matches
+     */
+    public int getEntries() {
+        return entries;
+    }
+
+    /**
+     * @return the number of texts looked up in the cache
+     */
+    public long getRequests() {
+        return requests;
+    }
+
+    /**
+     * @return the number of texts whose match was found in the cache
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return a rough estimate of the heap used by the cached matches
+     */
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d cached matches, %d of %d requests hit, ~%d bytes",
+                entries, hits, requests, estimatedBytes);
+    }
+}
@@ -0,0 +1,38 @@
+package io.cucumber.cucumberexpressions;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thrown when matching a text takes longer than the match timeout of the
+ * {@link ParameterTypeRegistry}, which usually means the regexp backtracks
+ * catastrophically on that text.
+ */
+public class MatchTimeoutException extends CucumberExpressionException {
+    // Texts can be large, so the message only starts with them
+    private static final int MAX_TEXT_LENGTH = 100;
+
+    private final String expression;
+
+    MatchTimeoutException(String expression, CharSequence text, long timeoutNanos) {
+        super(String.format("Matching %s against the expression \"%s\" took longer than %d ms",
+                describe(text),
+                expression,
+                TimeUnit.NANOSECONDS.toMillis(timeoutNanos)
+        ));
+        this.expression = expression;
+    }
+
+    private static String describe(CharSequence text) {
+        if (text.length() <= MAX_TEXT_LENGTH) {
+            return "\"" + text + "\"";
+        }
+        return "\"" + text.subSequence(0, MAX_TEXT_LENGTH) + "...\" (" + text.length() + " chars)";
+    }
+
+    /**
+     * @return the source of the expression that took too long to match
+     */
+    public String getExpression() {
+        return expression;
+    }
+}
@@ -2,27 +2,97 @@ package io.cucumber.cucumberexpressions;
 
 import java.math.BigDecimal;
 import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
 import java.text.NumberFormat;
 import java.text.ParseException;
 import java.util.Locale;
 
 class NumberParser {
+    // Every power of ten up to 10^22 is exactly representable as a double, up to 10^10 as a float
+    private static final double[] DOUBLE_POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final float[] FLOAT_POWERS_OF_TEN = {
+            1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f
+    };
+    private static final long MAX_DOUBLE_SIGNIFICAND = 1L << 53;
+    private static final long MAX_FLOAT_SIGNIFICAND = 1L << 24;
+    private static final int MAX_SIGNIFICANT_DIGITS = 18;
+    // Layout of the long returned by scanDecimal
+    private static final long NOT_SIMPLE_DECIMAL = -1;
+    private static final int SCALE_BITS = 5;
+    private static final long SCALE_MASK = (1 << SCALE_BITS) - 1;
+    private static final long NEGATIVE_FLAG = 1 << SCALE_BITS;
+    private static final int SIGNIFICAND_SHIFT = SCALE_BITS + 1;
+
     private final NumberFormat numberFormat;
+    private final boolean fastPathEnabled;
+    private final char minusSign;
+    private final char decimalSeparator;
+    private final char groupingSeparator;
+    private final boolean groupingUsed;
 
     NumberParser(Locale locale) {
         numberFormat = DecimalFormat.getNumberInstance(locale);
         if (numberFormat instanceof DecimalFormat) {
             DecimalFormat decimalFormat = (DecimalFormat) numberFormat;
             decimalFormat.setParseBigDecimal(true);
+            DecimalFormatSymbols symbols = decimalFormat.getDecimalFormatSymbols();
+            minusSign = symbols.getMinusSign();
+            decimalSeparator = symbols.getDecimalSeparator();
+            groupingSeparator = symbols.getGroupingSeparator();
+            groupingUsed = decimalFormat.isGroupingUsed();
+            // The fast path only understands a bare minus sign, anything fancier goes to DecimalFormat
+            fastPathEnabled = decimalFormat.getPositivePrefix().isEmpty()
+                    && decimalFormat.getPositiveSuffix().isEmpty()
+                    && decimalFormat.getNegativePrefix().equals(String.valueOf(minusSign))
+                    && decimalFormat.getNegativeSuffix().isEmpty()
+                    && decimalFormat.getMultiplier() == 1
+                    && decimalSeparator != groupingSeparator;
+        } else {
+            minusSign = '-';
+            decimalSeparator = '.';
+            groupingSeparator = ',';
+            groupingUsed = false;
+            fastPathEnabled = false;
         }
     }
 
     double parseDouble(String s) {
-        return parse(s).doubleValue();
+        return parseDouble(s, 0, s.length());
+    }
+
+    double parseDouble(CharSequence s, int start, int end) {
+        long decimal = scanDecimal(s, start, end);
+        if (decimal != NOT_SIMPLE_DECIMAL) {
+            long significand = decimal >>> SIGNIFICAND_SHIFT;
+            int scale = (int) (decimal & SCALE_MASK);
+            if (scale < DOUBLE_POWERS_OF_TEN.length) {
+                // Both operands are exact, so IEEE division rounds correctly
+                double value = (double) significand / DOUBLE_POWERS_OF_TEN[scale];
+                // DecimalFormat parses "-0" as BigDecimal zero, which has no sign
+                return (decimal & NEGATIVE_FLAG) != 0 && significand != 0 ? -value : value;
+            }
+        }
+        return parse(s.subSequence(start, end).toString()).doubleValue();
     }
 
     float parseFloat(String s) {
-        return parse(s).floatValue();
+        return parseFloat(s, 0, s.length());
+    }
+
+    float parseFloat(CharSequence s, int start, int end) {
+        long decimal = scanDecimal(s, start, end);
+        if (decimal != NOT_SIMPLE_DECIMAL) {
+            long significand = decimal >>> SIGNIFICAND_SHIFT;
+            int scale = (int) (decimal & SCALE_MASK);
+            if (significand <= MAX_FLOAT_SIGNIFICAND && scale < FLOAT_POWERS_OF_TEN.length) {
+                float value = (float) significand / FLOAT_POWERS_OF_TEN[scale];
+                return (decimal & NEGATIVE_FLAG) != 0 && significand != 0 ? -value : value;
+            }
+        }
+        return parse(s.subSequence(start, end).toString()).floatValue();
     }
 
     BigDecimal parseBigDecimal(String s) {
@@ -35,10 +105,71 @@ class NumberParser {
     }
 
     private Number parse(String s) {
+        // NumberFormat is not thread safe and registries share their built in parameter types
         try {
-            return numberFormat.parse(s);
+            synchronized (numberFormat) {
+                return numberFormat.parse(s);
+            }
         } catch (ParseException e) {
             throw new CucumberExpressionException("Failed to parse number", e);
         }
     }
+
+    /**
+     * Scans a plain decimal number: an optional minus sign, ASCII digits with
+     * optional grouping separators between them and an optional decimal
+     * separator followed by at least one digit.
+     *
+     * @return the significand (at most 2^53), sign and scale packed into a long, or
+     * {@link #NOT_SIMPLE_DECIMAL} if the number must be parsed by DecimalFormat
+     */
+    private long scanDecimal(CharSequence s, int start, int end) {
+        if (!fastPathEnabled || start == end) {
+            return NOT_SIMPLE_DECIMAL;
+        }
+        int i = start;
+        boolean negative = s.charAt(i) == minusSign;
+        if (negative) {
+            i++;
+        }
+        long significand = 0;
+        int significantDigits = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean fraction = false;
+        for (; i < end; i++) {
+            char c = s.charAt(i);
+            if (isDigit(c)) {
+                digits++;
+                if (significand != 0 || c != '0') {
+                    if (++significantDigits > MAX_SIGNIFICANT_DIGITS) {
+                        return NOT_SIMPLE_DECIMAL;
+                    }
+                    significand = significand * 10 + (c - '0');
+                }
+                if (fraction) {
+                    scale++;
+                }
+            } else if (c == decimalSeparator && !fraction) {
+                fraction = true;
+                // A trailing decimal separator is unusual enough to leave to DecimalFormat
+                if (i + 1 == end) {
+                    return NOT_SIMPLE_DECIMAL;
+                }
+            } else if (c == groupingSeparator && groupingUsed && !fraction && digits > 0
+                    && i + 1 < end && isDigit(s.charAt(i + 1))) {
+                // Grouping separators between integer digits are ignored, as in DecimalFormat
+            } else {
+                return NOT_SIMPLE_DECIMAL;
+            }
+        }
+        if (digits == 0 || significand > MAX_DOUBLE_SIGNIFICAND || scale > SCALE_MASK) {
+            return NOT_SIMPLE_DECIMAL;
+        }
+        return significand << SIGNIFICAND_SHIFT | (negative ? NEGATIVE_FLAG : 0) | scale;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
 }
@@ -8,6 +8,13 @@ final class ObjectMapperTransformer implements Transformer<Object> {
     private final ParameterByTypeTransformer transformer;
     private final Type toValueType;
 
+    static Transformer<Object> bind(ParameterByTypeTransformer defaultTransformer, Type toValueType) {
+        if (defaultTransformer instanceof BindableParameterByTypeTransformer) {
+            return ((BindableParameterByTypeTransformer) defaultTransformer).bind(toValueType);
+        }
+        return new ObjectMapperTransformer(defaultTransformer, toValueType);
+    }
+
     ObjectMapperTransformer(ParameterByTypeTransformer defaultTransformer, Type toValueType) {
         this.transformer = defaultTransformer;
         this.toValueType = toValueType;
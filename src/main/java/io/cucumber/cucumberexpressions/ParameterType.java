@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 
 public final class ParameterType<T> implements Comparable<ParameterType<?>> {
@@ -17,7 +18,7 @@ public final class ParameterType<T> implements Comparable<ParameterType<?>> {
     private final List<String> regexps;
     private final boolean preferForRegexpMatch;
     private final boolean useForSnippets;
-    private final CaptureGroupTransformer<T> transformer;
+    private final RegionTransformer<T> transformer;
     private final boolean anonymous;
 
     static void checkParameterTypeName(String name) {
@@ -29,9 +30,9 @@ public final class ParameterType<T> implements Comparable<ParameterType<?>> {
     }
 
     static ParameterType<Object> createAnonymousParameterType(String regexp) {
-        return new ParameterType<>("", singletonList(regexp), Object.class, new CaptureGroupTransformer<Object>() {
+        return new ParameterType<>("", singletonList(regexp), Object.class, new RegionTransformer<Object>() {
 
-            public Object transform(String[] arg) {
+            public Object transform(CharSequence text, int[] offsets) {
                 throw new UnsupportedOperationException("Anonymous transform must be deanonymized before use");
             }
         }, false, true, true);
@@ -57,7 +58,7 @@ public final class ParameterType<T> implements Comparable<ParameterType<?>> {
         );
     }
 
-    private ParameterType(String name, List<String> regexps, Type type, CaptureGroupTransformer<T> transformer, boolean useForSnippets, boolean preferForRegexpMatch, boolean anonymous) {
+    private ParameterType(String name, List<String> regexps, Type type, RegionTransformer<T> transformer, boolean useForSnippets, boolean preferForRegexpMatch, boolean anonymous) {
         if (regexps == null) throw new NullPointerException("regexps cannot be null");
         if (type == null) throw new NullPointerException("type cannot be null");
         if (transformer == null) throw new NullPointerException("transformer cannot be null");
@@ -71,10 +72,30 @@ public final class ParameterType<T> implements Comparable<ParameterType<?>> {
         this.anonymous = anonymous;
     }
 
-    public ParameterType(String name, List<String> regexps, Type type, CaptureGroupTransformer<T> transformer, boolean useForSnippets, boolean preferForRegexpMatch) {
+    public ParameterType(String name, List<String> regexps, Type type, RegionTransformer<T> transformer, boolean useForSnippets, boolean preferForRegexpMatch) {
         this(name, regexps, type, transformer, useForSnippets, preferForRegexpMatch, false);
     }
 
+    public ParameterType(String name, List<String> regexps, Class<T> type, RegionTransformer<T> transformer, boolean useForSnippets, boolean preferForRegexpMatch) {
+        this(name, regexps, (Type) type, transformer, useForSnippets, preferForRegexpMatch);
+    }
+
+    public ParameterType(String name, String regexp, Class<T> type, RegionTransformer<T> transformer, boolean useForSnippets, boolean preferForRegexpMatch) {
+        this(name, singletonList(regexp), type, transformer, useForSnippets, preferForRegexpMatch);
+    }
+
+    public ParameterType(String name, List<String> regexps, Class<T> type, RegionTransformer<T> transformer) {
+        this(name, regexps, type, transformer, true, false);
+    }
+
+    public ParameterType(String name, String regexp, Class<T> type, RegionTransformer<T> transformer) {
+        this(name, singletonList(regexp), type, transformer, true, false);
+    }
+
+    public ParameterType(String name, List<String> regexps, Type type, CaptureGroupTransformer<T> transformer, boolean useForSnippets, boolean preferForRegexpMatch) {
+        this(name, regexps, type, new CaptureGroupTransformerAdaptor<>(transformer), useForSnippets, preferForRegexpMatch);
+    }
+
     public ParameterType(String name, List<String> regexps, Class<T> type, CaptureGroupTransformer<T> transformer, boolean useForSnippets, boolean preferForRegexpMatch) {
         this(name, regexps, (Type) type, transformer, useForSnippets, preferForRegexpMatch);
     }
@@ -167,30 +188,82 @@ public final class ParameterType<T> implements Comparable<ParameterType<?>> {
         return new ParameterType<>("anonymous", regexps, type, new TransformerAdaptor<>(transformer), useForSnippets, preferForRegexpMatch, anonymous);
     }
 
-    T transform(List<String> groupValues) {
-        if (transformer instanceof TransformerAdaptor) {
-            if (groupValues.size() > 1) {
-                if (isAnonymous()) {
-                    throw new CucumberExpressionException(String.format("" +
-                            "Anonymous ParameterType has multiple capture groups %s. " +
-                            "You can only use a single capture group in an anonymous ParameterType.", regexps));
-                }
-                throw new CucumberExpressionException(String.format("" +
-                        "ParameterType {%s} was registered with a Transformer but has multiple capture groups %s. " +
-                        "Did you mean to use a CaptureGroupTransformer?", name, regexps));
+    T transform(Group group) {
+        return tryTransform(group).getValue();
+    }
+
+    TransformResult<T> tryTransform(Group group) {
+        CharSequence text = group.getText();
+        List<Group> groups = group.getChildren().isEmpty() ? singletonList(group) : group.getChildren();
+        int[] offsets = new int[groups.size() * 2];
+        if (text != null) {
+            for (int i = 0; i < groups.size(); i++) {
+                offsets[2 * i] = groups.get(i).getStart();
+                offsets[2 * i + 1] = groups.get(i).getEnd();
+            }
+        } else {
+            // The group was not created by a match, so lay its values out in a text of their own
+            StringBuilder values = new StringBuilder();
+            for (int i = 0; i < groups.size(); i++) {
+                String value = groups.get(i).getValue();
+                offsets[2 * i] = value == null ? -1 : values.length();
+                if (value != null) values.append(value);
+                offsets[2 * i + 1] = value == null ? -1 : values.length();
             }
+            text = values.toString();
+        }
+        return tryTransform(text, offsets);
+    }
+
+    private TransformResult<T> tryTransform(CharSequence text, int[] offsets) {
+        if (transformer instanceof TransformerAdaptor && countParticipatingGroups(offsets) > 1) {
+            return TransformResult.failure(this, text, offsets, null);
         }
 
         try {
-            String[] groupValueArray = groupValues.toArray(new String[0]);
-            return transformer.transform(groupValueArray);
-        } catch (CucumberExpressionException e) {
-            throw e;
+            return TransformResult.success(transformer.transform(text, offsets));
         } catch (Throwable throwable) {
-            throw new CucumberExpressionException(String.format("ParameterType {%s} failed to transform %s to %s", name, groupValues, type), throwable);
+            return TransformResult.failure(this, text, offsets, throwable);
         }
     }
 
+    CucumberExpressionException createTransformException(CharSequence text, int[] offsets, Throwable cause) {
+        if (cause == null) {
+            if (isAnonymous()) {
+                return new CucumberExpressionException(String.format("" +
+                        "Anonymous ParameterType has multiple capture groups %s. " +
+                        "You can only use a single capture group in an anonymous ParameterType.", regexps));
+            }
+            return new CucumberExpressionException(String.format("" +
+                    "ParameterType {%s} was registered with a Transformer but has multiple capture groups %s. " +
+                    "Did you mean to use a CaptureGroupTransformer?", name, regexps));
+        }
+        if (cause instanceof CucumberExpressionException) {
+            return (CucumberExpressionException) cause;
+        }
+        List<String> groupValues = asList(participatingGroupValues(text, offsets));
+        return new CucumberExpressionException(String.format("ParameterType {%s} failed to transform %s to %s", name, groupValues, type), cause);
+    }
+
+    private static int countParticipatingGroups(int[] offsets) {
+        int count = 0;
+        for (int i = 0; i < offsets.length; i += 2) {
+            if (offsets[i] != -1) count++;
+        }
+        return count;
+    }
+
+    private static String[] participatingGroupValues(CharSequence text, int[] offsets) {
+        String[] values = new String[countParticipatingGroups(offsets)];
+        int n = 0;
+        for (int i = 0; i < offsets.length; i += 2) {
+            if (offsets[i] != -1) {
+                values[n++] = text.subSequence(offsets[i], offsets[i + 1]).toString();
+            }
+        }
+        return values;
+    }
+
     @Override
     public int compareTo(ParameterType<?> o) {
         if (preferForRegexpMatch() && !o.preferForRegexpMatch()) return -1;
@@ -200,7 +273,7 @@ public final class ParameterType<T> implements Comparable<ParameterType<?>> {
         return name.compareTo(otherName);
     }
 
-    private static final class TransformerAdaptor<T> implements CaptureGroupTransformer<T> {
+    private static final class TransformerAdaptor<T> implements RegionTransformer<T> {
 
         private final Transformer<T> transformer;
 
@@ -210,9 +283,28 @@ public final class ParameterType<T> implements Comparable<ParameterType<?>> {
         }
 
         @Override
-        public T transform(String[] args) throws Throwable {
-            String arg = args.length == 0 ? null : args[0];
-            return transformer.transform(arg);
+        public T transform(CharSequence text, int[] offsets) throws Throwable {
+            for (int i = 0; i < offsets.length; i += 2) {
+                if (offsets[i] != -1) {
+                    return transformer.transform(text.subSequence(offsets[i], offsets[i + 1]).toString());
+                }
+            }
+            return transformer.transform(null);
+        }
+    }
+
+    private static final class CaptureGroupTransformerAdaptor<T> implements RegionTransformer<T> {
+
+        private final CaptureGroupTransformer<T> transformer;
+
+        private CaptureGroupTransformerAdaptor(CaptureGroupTransformer<T> transformer) {
+            if (transformer == null) throw new NullPointerException("transformer cannot be null");
+            this.transformer = transformer;
+        }
+
+        @Override
+        public T transform(CharSequence text, int[] offsets) throws Throwable {
+            return transformer.transform(participatingGroupValues(text, offsets));
         }
     }
 }
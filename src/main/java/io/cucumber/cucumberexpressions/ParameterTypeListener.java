@@ -0,0 +1,20 @@
+package io.cucumber.cucumberexpressions;
+
+/**
+ * Is told about parameter types defined in a {@link ParameterTypeRegistry}
+ * and its parents, so caches and indexes built on top of a registry can be
+ * kept up to date incrementally rather than rebuilt.
+ *
+ * @see ParameterTypeRegistry#addParameterTypeListener(ParameterTypeListener)
+ */
+public interface ParameterTypeListener {
+
+    /**
+     * Invoked after the parameter type has been defined, on the thread that
+     * defined it.
+     *
+     * @param registry      the registry the parameter type was defined in
+     * @param parameterType the parameter type
+     */
+    void parameterTypeDefined(ParameterTypeRegistry registry, ParameterType<?> parameterType);
+}
@@ -6,11 +6,19 @@ class ParameterTypeMatcher implements Comparable<ParameterTypeMatcher> {
     private final ParameterType<?> parameterType;
     private final Matcher matcher;
     private final int textLength;
+    private final boolean regionSensitive;
+    private int start = -1;
+    private int end = -1;
 
     public ParameterTypeMatcher(ParameterType<?> parameterType, Matcher matcher, int textLength) {
+        this(parameterType, matcher, textLength, true);
+    }
+
+    ParameterTypeMatcher(ParameterType<?> parameterType, Matcher matcher, int textLength, boolean regionSensitive) {
         this.parameterType = parameterType;
         this.matcher = matcher;
         this.textLength = textLength;
+        this.regionSensitive = regionSensitive;
     }
 
     public boolean advanceToAndFind(int newMatchPos) {
@@ -18,15 +26,41 @@ class ParameterTypeMatcher implements Comparable<ParameterTypeMatcher> {
         // so we can't use the immutable semantics.
         matcher.region(newMatchPos, textLength);
         while (matcher.find()) {
-            if (!group().isEmpty()) {
+            if (matcher.end() != matcher.start()) {
+                start = matcher.start();
+                end = matcher.end();
                 return true;
             }
         }
+        start = -1;
+        end = -1;
         return false;
     }
 
+    /**
+     * Whether a match found from an earlier position is still the match that
+     * {@link #advanceToAndFind(int)} would find from {@code newMatchPos}.
+     * <p>
+     * A match only depends on the text from its start onwards, unless the
+     * regexp looks behind its start or at the start of the region.
+     *
+     * @param newMatchPos the position the next match must start at or after
+     * @return true if the last match is still valid
+     */
+    boolean isStillValidFrom(int newMatchPos) {
+        return !regionSensitive && start >= newMatchPos;
+    }
+
+    boolean isRegionSensitive() {
+        return regionSensitive;
+    }
+
     public int start() {
-        return matcher.start();
+        return start;
+    }
+
+    int end() {
+        return end;
     }
 
     public String group() {
@@ -37,7 +71,7 @@ class ParameterTypeMatcher implements Comparable<ParameterTypeMatcher> {
     public int compareTo(ParameterTypeMatcher o) {
         int posComparison = Integer.compare(start(), o.start());
         if (posComparison != 0) return posComparison;
-        int lengthComparison = Integer.compare(o.group().length(), group().length());
+        int lengthComparison = Integer.compare(o.end() - o.start(), end() - start());
         if (lengthComparison != 0) return lengthComparison;
         return 0;
     }
@@ -45,4 +79,47 @@ class ParameterTypeMatcher implements Comparable<ParameterTypeMatcher> {
     public ParameterType<?> getParameterType() {
         return parameterType;
     }
+
+    /**
+     * Detects constructs whose result depends on the text before the match or
+     * on where the region starts: {@code ^}, {@code \b}, {@code \B},
+     * {@code \A}, {@code \G} and look-behinds.
+     *
+     * @param regexp a regexp
+     * @return true if a match must be searched for again from every position
+     */
+    static boolean isRegionSensitive(String regexp) {
+        int classDepth = 0;
+        for (int i = 0; i < regexp.length(); i++) {
+            char c = regexp.charAt(i);
+            if (c == '\\') {
+                if (++i >= regexp.length()) {
+                    return true;
+                }
+                char escaped = regexp.charAt(i);
+                if (escaped == 'Q') {
+                    int quoteEnd = regexp.indexOf("\\E", i);
+                    if (quoteEnd == -1) {
+                        return false;
+                    }
+                    i = quoteEnd + 1;
+                } else if (classDepth == 0 && "bBAG".indexOf(escaped) != -1) {
+                    return true;
+                }
+            } else if (c == '[') {
+                classDepth++;
+                // A leading ] or ^] is a literal
+                if (i + 1 < regexp.length() && regexp.charAt(i + 1) == '^') i++;
+                if (i + 1 < regexp.length() && regexp.charAt(i + 1) == ']') i++;
+            } else if (c == ']' && classDepth > 0) {
+                classDepth--;
+            } else if (classDepth == 0 && c == '^') {
+                return true;
+            } else if (classDepth == 0 && regexp.startsWith("(?<", i) && i + 3 < regexp.length()
+                    && (regexp.charAt(i + 3) == '=' || regexp.charAt(i + 3) == '!')) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -1,7 +1,10 @@
 package io.cucumber.cucumberexpressions;
 
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Type;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -9,6 +12,12 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static io.cucumber.cucumberexpressions.ParameterType.createAnonymousParameterType;
@@ -23,93 +32,122 @@ public class ParameterTypeRegistry {
     private static final List<String> WORD_REGEXPS = singletonList(Pattern.compile("[^\\s]+").pattern());
     private static final List<String> STRING_REGEXPS = singletonList(Pattern.compile("\"([^\"\\\\]*(\\\\.[^\"\\\\]*)*)\"|'([^'\\\\]*(\\\\.[^'\\\\]*)*)'").pattern());
     private static final String ANONYMOUS_REGEX = Pattern.compile(".*").pattern();
+    // The built in parameter types never change, so registries for the same locale share them
+    private static final ConcurrentMap<Locale, ParameterTypeRegistry> BUILT_IN_REGISTRIES = new ConcurrentHashMap<>();
+    private final ParameterTypeRegistry parent;
     private final Map<String, ParameterType<?>> parameterTypeByName = new HashMap<>();
+    // Keyed by canonical regexp, so equivalent regexps share an entry
     private final Map<String, SortedSet<ParameterType<?>>> parameterTypesByRegexp = new HashMap<>();
     /**
      * To maintain consistency with `datatable` we don't use the mutable default
      * transformer to handle build in in conversions yet.
      */
-    private final ParameterByTypeTransformer internalParameterTransformer;
+    private final BuiltInParameterTransformer internalParameterTransformer;
+    // Null until set, in which case the parent's is used
     private ParameterByTypeTransformer defaultParameterTransformer;
+    // Transformers bound by this registry, never by its parent, so the types
+    // bound by a short lived child don't outlive it in a shared parent
+    private volatile BoundTransformers boundDefaultParameterTransformers;
+    private final List<ParameterTypeListener> parameterTypeListeners = new CopyOnWriteArrayList<>();
+    // Tells the listeners of this registry about the parameter types defined in its parent, or null
+    private ParentRelay parentRelay;
+    private volatile long version;
+    private volatile boolean frozen;
+    // Or -1 until set, in which case the parent's is used
+    private volatile long matchTimeoutNanos = -1;
+    private final ConcurrentMap<String, AtomicLong> matchTimeoutsByExpression = new ConcurrentHashMap<>();
+    // Null until set, in which case the parent's is used
+    private volatile ExpressionInstrumentation expressionInstrumentation;
 
     public ParameterTypeRegistry(Locale locale) {
-        this(new BuiltInParameterTransformer(locale));
+        this(builtInRegistry(locale));
     }
 
-    private ParameterTypeRegistry(ParameterByTypeTransformer defaultParameterTransformer) {
+    /**
+     * Creates a registry on top of {@code parent}. The parameter types and the
+     * default parameter transformer of the parent, including those defined or
+     * set later, are also used by this registry unless it defines its own.
+     * Creating a registry this way is cheap, so it can be done per scenario.
+     *
+     * @param parent the registry to fall back to
+     */
+    public ParameterTypeRegistry(ParameterTypeRegistry parent) {
+        if (parent == null) throw new NullPointerException("parent cannot be null");
+        this.parent = parent;
+        this.internalParameterTransformer = parent.internalParameterTransformer;
+    }
+
+    private static ParameterTypeRegistry builtInRegistry(Locale locale) {
+        ParameterTypeRegistry registry = BUILT_IN_REGISTRIES.get(locale);
+        if (registry == null) {
+            registry = new ParameterTypeRegistry(new BuiltInParameterTransformer(locale));
+            ParameterTypeRegistry existing = BUILT_IN_REGISTRIES.putIfAbsent(locale, registry);
+            if (existing != null) {
+                registry = existing;
+            }
+        }
+        return registry;
+    }
+
+    private ParameterTypeRegistry(BuiltInParameterTransformer defaultParameterTransformer) {
+        this.parent = null;
+        this.matchTimeoutNanos = 0;
         this.internalParameterTransformer = defaultParameterTransformer;
         this.defaultParameterTransformer = defaultParameterTransformer;
 
-        defineParameterType(new ParameterType<>("biginteger", INTEGER_REGEXPS, BigInteger.class, new Transformer<BigInteger>() {
-            @Override
-            public BigInteger transform(String arg) throws Throwable {
-                return (BigInteger) internalParameterTransformer.transform(arg, BigInteger.class);
-            }
-        }, false, false));
-        defineParameterType(new ParameterType<>("bigdecimal", FLOAT_REGEXPS, BigDecimal.class, new Transformer<BigDecimal>() {
-            @Override
-            public BigDecimal transform(String arg) throws Throwable {
-                return (BigDecimal) internalParameterTransformer.transform(arg, BigDecimal.class);
-            }
-        }, false, false));
-        defineParameterType(new ParameterType<>("byte", INTEGER_REGEXPS, Byte.class, new Transformer<Byte>() {
-            @Override
-            public Byte transform(String arg) throws Throwable {
-                return (Byte) internalParameterTransformer.transform(arg, Byte.class);
-            }
-        }, false, false));
-        defineParameterType(new ParameterType<>("short", INTEGER_REGEXPS, Short.class, new Transformer<Short>() {
-            @Override
-            public Short transform(String arg) throws Throwable {
-                return (Short) internalParameterTransformer.transform(arg, Short.class);
-            }
-        }, false, false));
-        defineParameterType(new ParameterType<>("int", INTEGER_REGEXPS, Integer.class, new Transformer<Integer>() {
-            @Override
-            public Integer transform(String arg) throws Throwable {
-                return (Integer) internalParameterTransformer.transform(arg, Integer.class);
-            }
-        }, true, true));
-        defineParameterType(new ParameterType<>("long", INTEGER_REGEXPS, Long.class, new Transformer<Long>() {
+        defineParameterType(new ParameterType<>("biginteger", INTEGER_REGEXPS, BigInteger.class, new BuiltInTransformer<>(BigInteger.class), false, false));
+        defineParameterType(new ParameterType<>("bigdecimal", FLOAT_REGEXPS, BigDecimal.class, new BuiltInTransformer<>(BigDecimal.class), false, false));
+        defineParameterType(new ParameterType<>("byte", INTEGER_REGEXPS, Byte.class, new BuiltInTransformer<>(Byte.class), false, false));
+        defineParameterType(new ParameterType<>("short", INTEGER_REGEXPS, Short.class, new BuiltInTransformer<>(Short.class), false, false));
+        defineParameterType(new ParameterType<>("int", INTEGER_REGEXPS, Integer.class, new BuiltInTransformer<>(Integer.class), true, true));
+        defineParameterType(new ParameterType<>("long", INTEGER_REGEXPS, Long.class, new BuiltInTransformer<>(Long.class), false, false));
+        defineParameterType(new ParameterType<>("float", FLOAT_REGEXPS, Float.class, new BuiltInTransformer<>(Float.class), false, false));
+        defineParameterType(new ParameterType<>("double", FLOAT_REGEXPS, Double.class, new BuiltInTransformer<>(Double.class), true, true));
+        defineParameterType(new ParameterType<>("word", WORD_REGEXPS, String.class, new BuiltInTransformer<>(String.class), false, false));
+        defineParameterType(new ParameterType<>("string", STRING_REGEXPS, String.class, new RegionTransformer<String>() {
             @Override
-            public Long transform(String arg) throws Throwable {
-                return (Long) internalParameterTransformer.transform(arg, Long.class);
-            }
-        }, false, false));
-        defineParameterType(new ParameterType<>("float", FLOAT_REGEXPS, Float.class, new Transformer<Float>() {
-            @Override
-            public Float transform(String arg) throws Throwable {
-                return (Float) internalParameterTransformer.transform(arg, Float.class);
-            }
-        }, false, false));
-        defineParameterType(new ParameterType<>("double", FLOAT_REGEXPS, Double.class, new Transformer<Double>() {
-            @Override
-            public Double transform(String arg) throws Throwable {
-                return (Double) internalParameterTransformer.transform(arg, Double.class);
-            }
-        }, true, true));
-        defineParameterType(new ParameterType<>("word", WORD_REGEXPS, String.class, new Transformer<String>() {
-            @Override
-            public String transform(String arg) throws Throwable {
-                return (String) internalParameterTransformer.transform(arg, String.class);
-            }
-        }, false, false));
-        defineParameterType(new ParameterType<>("string", STRING_REGEXPS, String.class, new Transformer<String>() {
-            @Override
-            public String transform(String arg) throws Throwable {
-                return arg == null ? null : (String) internalParameterTransformer.transform(arg
-                                .replaceAll("\\\\\"", "\"")
-                                .replaceAll("\\\\'", "'"),
-                        String.class);
+            public String transform(CharSequence text, int[] offsets) {
+                // Only one of the quoted alternatives participates
+                for (int i = 0; i < offsets.length; i += 2) {
+                    if (offsets[i] != -1) {
+                        return unescapeQuotes(text, offsets[i], offsets[i + 1]);
+                    }
+                }
+                return null;
             }
         }, true, false));
 
         defineParameterType(createAnonymousParameterType(ANONYMOUS_REGEX));
+        freeze();
+    }
+
+    /**
+     * Replaces \" with " and \' with ', copying the region at most once.
+     */
+    private static String unescapeQuotes(CharSequence text, int start, int end) {
+        StringBuilder unescaped = null;
+        int copiedUpTo = start;
+        for (int i = start; i < end - 1; i++) {
+            char next = text.charAt(i + 1);
+            if (text.charAt(i) == '\\' && (next == '"' || next == '\'')) {
+                if (unescaped == null) {
+                    unescaped = new StringBuilder(end - start);
+                }
+                unescaped.append(text, copiedUpTo, i).append(next);
+                copiedUpTo = i + 2;
+                i++;
+            }
+        }
+        if (unescaped == null) {
+            return text.subSequence(start, end).toString();
+        }
+        return unescaped.append(text, copiedUpTo, end).toString();
     }
 
     public void defineParameterType(ParameterType<?> parameterType) {
+        checkNotFrozen();
         if (parameterType.getName() != null) {
-            if (parameterTypeByName.containsKey(parameterType.getName())) {
+            if (lookupByTypeName(parameterType.getName()) != null) {
                 if (parameterType.getName().isEmpty()) {
                     throw new DuplicateTypeNameException("The anonymous parameter type has already been defined");
                 }
@@ -119,48 +157,353 @@ public class ParameterTypeRegistry {
         }
 
         for (String parameterTypeRegexp : parameterType.getRegexps()) {
-            if (!parameterTypesByRegexp.containsKey(parameterTypeRegexp)) {
-                parameterTypesByRegexp.put(parameterTypeRegexp, new TreeSet<ParameterType<?>>());
-            }
-            SortedSet<ParameterType<?>> parameterTypes = parameterTypesByRegexp.get(parameterTypeRegexp);
-            if (!parameterTypes.isEmpty() && parameterTypes.first().preferForRegexpMatch() && parameterType.preferForRegexpMatch()) {
+            String canonicalRegexp = RegexpCanonicalizer.canonicalize(parameterTypeRegexp);
+            SortedSet<ParameterType<?>> parameterTypes = lookupAllByCanonicalRegexp(canonicalRegexp);
+            if (parameterTypes != null && parameterTypes.first().preferForRegexpMatch() && parameterType.preferForRegexpMatch()) {
                 throw new CucumberExpressionException(String.format(
                         "There can only be one preferential parameter type per regexp. " +
                                 "The regexp /%s/ is used for two preferential parameter types, {%s} and {%s}",
                         parameterTypeRegexp, parameterTypes.first().getName(), parameterType.getName()
                 ));
             }
-            parameterTypes.add(parameterType);
+            if (!parameterTypesByRegexp.containsKey(canonicalRegexp)) {
+                parameterTypesByRegexp.put(canonicalRegexp, new TreeSet<ParameterType<?>>());
+            }
+            parameterTypesByRegexp.get(canonicalRegexp).add(parameterType);
+        }
+        // Defining parameter types is not thread safe, so there is a single writer
+        version++;
+        parameterTypeDefined(this, parameterType);
+    }
+
+    private void parameterTypeDefined(ParameterTypeRegistry definedIn, ParameterType<?> parameterType) {
+        for (ParameterTypeListener parameterTypeListener : parameterTypeListeners) {
+            parameterTypeListener.parameterTypeDefined(definedIn, parameterType);
+        }
+    }
+
+    /**
+     * Returns a number that increases whenever a parameter type is defined or
+     * the default parameter transformer is replaced in this registry or one
+     * of its parents. Anything derived from the registry is up to date as
+     * long as the version is the same.
+     *
+     * @return the version of this registry
+     */
+    public long getVersion() {
+        return parent == null ? version : version + parent.getVersion();
+    }
+
+    /**
+     * Adds a listener that is told about parameter types defined from now on
+     * in this registry or one of its parents. When neither can define
+     * parameter types any more, the listener is not kept.
+     * <p>
+     * The listeners are only kept by this registry. Its parent only keeps a
+     * weak reference to it, so the listeners of a short lived registry, e.g.
+     * one per scenario, are not kept by a long lived parent.
+     *
+     * @param parameterTypeListener the listener
+     */
+    public void addParameterTypeListener(ParameterTypeListener parameterTypeListener) {
+        if (parameterTypeListener == null) throw new NullPointerException("parameterTypeListener cannot be null");
+        if (isFrozen()) {
+            return;
+        }
+        // Forget the children that are no longer used
+        for (ParameterTypeListener listener : parameterTypeListeners) {
+            if (listener instanceof ParentRelay && ((ParentRelay) listener).isCleared()) {
+                parameterTypeListeners.remove(listener);
+            }
+        }
+        parameterTypeListeners.add(parameterTypeListener);
+        synchronized (parameterTypeListeners) {
+            if (parentRelay == null && parent != null && !parent.isFrozen()) {
+                parentRelay = new ParentRelay(parent, this);
+                parent.addParameterTypeListener(parentRelay);
+            }
+        }
+    }
+
+    public void removeParameterTypeListener(ParameterTypeListener parameterTypeListener) {
+        parameterTypeListeners.remove(parameterTypeListener);
+    }
+
+    /**
+     * Prevents parameter types from being defined, and the default parameter
+     * transformer and other settings from being replaced in this registry.
+     * Registries created on top of a frozen registry can still be changed.
+     */
+    public void freeze() {
+        frozen = true;
+        if (isFrozen()) {
+            parameterTypeListeners.clear();
+        }
+    }
+
+    /**
+     * @return true if neither this registry nor its parents can change
+     */
+    public boolean isFrozen() {
+        return frozen && (parent == null || parent.isFrozen());
+    }
+
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new CucumberExpressionException("The parameter type registry is frozen");
+        }
+    }
+
+    /**
+     * Limits how long expressions created with this registry may take to
+     * match a text. A match that takes longer throws a
+     * {@link MatchTimeoutException}, rather than backtracking for hours on a
+     * pathological regexp. Checking the time slows down matching a little, so
+     * there is no timeout by default.
+     *
+     * @param timeout the timeout, or 0 for none
+     * @param unit    the unit of the timeout
+     */
+    public void setMatchTimeout(long timeout, TimeUnit unit) {
+        checkNotFrozen();
+        if (timeout < 0) throw new IllegalArgumentException("timeout cannot be negative: " + timeout);
+        this.matchTimeoutNanos = unit.toNanos(timeout);
+    }
+
+    /**
+     * @param unit the unit to return the timeout in
+     * @return the match timeout, or 0 if there is none
+     */
+    public long getMatchTimeout(TimeUnit unit) {
+        return unit.convert(getMatchTimeoutNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private long getMatchTimeoutNanos() {
+        long matchTimeoutNanos = this.matchTimeoutNanos;
+        return matchTimeoutNanos == -1 ? parent.getMatchTimeoutNanos() : matchTimeoutNanos;
+    }
+
+    /**
+     * @return the number of matches that timed out, by the source of the
+     * expressions created with this registry
+     */
+    public Map<String, Long> getMatchTimeouts() {
+        Map<String, Long> matchTimeouts = new HashMap<>();
+        for (Map.Entry<String, AtomicLong> entry : matchTimeoutsByExpression.entrySet()) {
+            matchTimeouts.put(entry.getKey(), entry.getValue().get());
+        }
+        return matchTimeouts;
+    }
+
+    /**
+     * Tells {@code expressionInstrumentation} about the work done by
+     * expressions created with this registry from now on, including
+     * registries created on top of it that don't have their own.
+     *
+     * @param expressionInstrumentation the instrumentation, or null for none
+     */
+    public void setExpressionInstrumentation(ExpressionInstrumentation expressionInstrumentation) {
+        checkNotFrozen();
+        this.expressionInstrumentation = expressionInstrumentation;
+    }
+
+    /**
+     * @return the instrumentation of this registry or its parent, or null if there is none
+     */
+    public ExpressionInstrumentation getExpressionInstrumentation() {
+        ExpressionInstrumentation expressionInstrumentation = this.expressionInstrumentation;
+        if (expressionInstrumentation == null && parent != null) {
+            return parent.getExpressionInstrumentation();
+        }
+        return expressionInstrumentation;
+    }
+
+    /**
+     * Matches the text against the regexp of an expression created with this
+     * registry, within the match timeout.
+     */
+    Group match(Expression expression, TreeRegexp treeRegexp, CharSequence text, ExpressionInstrumentation expressionInstrumentation) {
+        if (expressionInstrumentation == null) {
+            Matcher matcher = matcher(expression, treeRegexp, text);
+            return matcher == null ? null : treeRegexp.build(text, matcher);
+        }
+        long start = LatencySampling.start();
+        Matcher matcher;
+        try {
+            matcher = matcher(expression, treeRegexp, text);
+        } catch (MatchTimeoutException e) {
+            expressionInstrumentation.matchTimedOut(expression, text.length());
+            throw e;
+        }
+        expressionInstrumentation.expressionMatched(expression, text.length(), matcher != null, LatencySampling.elapsed(start));
+        if (matcher == null) {
+            return null;
+        }
+        start = LatencySampling.start();
+        Group group = treeRegexp.build(text, matcher);
+        expressionInstrumentation.groupsBuilt(expression, LatencySampling.elapsed(start));
+        return group;
+    }
+
+    private Matcher matcher(Expression expression, TreeRegexp treeRegexp, CharSequence text) {
+        long timeoutNanos = getMatchTimeoutNanos();
+        if (timeoutNanos == 0) {
+            return treeRegexp.matcher(text);
+        }
+        try {
+            return treeRegexp.matcher(text, System.nanoTime() + timeoutNanos);
+        } catch (DeadlineCharSequence.DeadlineExceeded e) {
+            String source = expression.getSource();
+            AtomicLong matchTimeouts = matchTimeoutsByExpression.get(source);
+            if (matchTimeouts == null) {
+                AtomicLong existing = matchTimeoutsByExpression.putIfAbsent(source, matchTimeouts = new AtomicLong());
+                if (existing != null) {
+                    matchTimeouts = existing;
+                }
+            }
+            matchTimeouts.incrementAndGet();
+            throw new MatchTimeoutException(source, text, timeoutNanos);
         }
     }
 
     public ParameterByTypeTransformer getDefaultParameterTransformer() {
+        if (defaultParameterTransformer == null) {
+            return parent.getDefaultParameterTransformer();
+        }
         return defaultParameterTransformer;
     }
 
     public void setDefaultParameterTransformer(ParameterByTypeTransformer defaultParameterTransformer) {
+        checkNotFrozen();
         this.defaultParameterTransformer = defaultParameterTransformer;
+        version++;
+    }
+
+    /**
+     * Returns a transformer that uses the default parameter transformer to
+     * transform to {@code toValueType}. Transformers are bound once per type
+     * and default parameter transformer.
+     */
+    Transformer<Object> bindDefaultParameterTransformer(Type toValueType) {
+        ParameterByTypeTransformer defaultParameterTransformer = getDefaultParameterTransformer();
+        BoundTransformers boundTransformers = this.boundDefaultParameterTransformers;
+        // Also rebinds when the transformer of a parent was replaced
+        if (boundTransformers == null || boundTransformers.defaultParameterTransformer != defaultParameterTransformer) {
+            boundTransformers = new BoundTransformers(defaultParameterTransformer);
+            this.boundDefaultParameterTransformers = boundTransformers;
+        }
+        return boundTransformers.bind(toValueType);
     }
 
     public <T> ParameterType<T> lookupByTypeName(String typeName) {
-        return (ParameterType<T>) parameterTypeByName.get(typeName);
+        ParameterType<?> parameterType = parameterTypeByName.get(typeName);
+        if (parameterType == null && parent != null) {
+            return parent.lookupByTypeName(typeName);
+        }
+        return (ParameterType<T>) parameterType;
+    }
+
+    /**
+     * @return the parameter types of this registry and its parents with a regexp
+     * equivalent to the given canonical regexp, or null if there are none. The set
+     * must not be modified.
+     */
+    private SortedSet<ParameterType<?>> lookupAllByCanonicalRegexp(String canonicalRegexp) {
+        SortedSet<ParameterType<?>> parameterTypes = parameterTypesByRegexp.get(canonicalRegexp);
+        SortedSet<ParameterType<?>> parentParameterTypes = parent == null ? null : parent.lookupAllByCanonicalRegexp(canonicalRegexp);
+        if (parentParameterTypes == null) return parameterTypes;
+        if (parameterTypes == null) return parentParameterTypes;
+        SortedSet<ParameterType<?>> merged = new TreeSet<>(parentParameterTypes);
+        merged.addAll(parameterTypes);
+        return merged;
     }
 
     public <T> ParameterType<T> lookupByRegexp(String parameterTypeRegexp, Pattern expressionRegexp, String text) {
-        SortedSet<ParameterType<?>> parameterTypes = parameterTypesByRegexp.get(parameterTypeRegexp);
+        return lookupByRegexp(parameterTypeRegexp, expressionRegexp, (CharSequence) text);
+    }
+
+    <T> ParameterType<T> lookupByRegexp(String parameterTypeRegexp, Pattern expressionRegexp, CharSequence text) {
+        SortedSet<ParameterType<?>> parameterTypes = lookupAllByCanonicalRegexp(RegexpCanonicalizer.canonicalize(parameterTypeRegexp));
         if (parameterTypes == null) return null;
         if (parameterTypes.size() > 1 && !parameterTypes.first().preferForRegexpMatch()) {
             // We don't do this check on insertion because we only want to restrict
             // ambiguity when we look up by Regexp. Users of CucumberExpression should
             // not be restricted.
-            List<GeneratedExpression> generatedExpressions = new CucumberExpressionGenerator(this).generateExpressions(text);
+            List<GeneratedExpression> generatedExpressions = new CucumberExpressionGenerator(this).generateExpressions(text.toString());
             throw new AmbiguousParameterTypeException(parameterTypeRegexp, expressionRegexp, parameterTypes, generatedExpressions);
         }
         return (ParameterType<T>) parameterTypes.first();
     }
 
     public Collection<ParameterType<?>> getParameterTypes() {
-        return parameterTypeByName.values();
+        if (parent == null) {
+            return parameterTypeByName.values();
+        }
+        List<ParameterType<?>> parameterTypes = new ArrayList<>(parent.getParameterTypes());
+        parameterTypes.addAll(parameterTypeByName.values());
+        return parameterTypes;
     }
 
+    /**
+     * Forwards the parameter types defined in a parent to the listeners of a
+     * child, for as long as the child is used.
+     */
+    private static final class ParentRelay implements ParameterTypeListener {
+        private final ParameterTypeRegistry parent;
+        private final WeakReference<ParameterTypeRegistry> child;
+
+        ParentRelay(ParameterTypeRegistry parent, ParameterTypeRegistry child) {
+            this.parent = parent;
+            this.child = new WeakReference<>(child);
+        }
+
+        @Override
+        public void parameterTypeDefined(ParameterTypeRegistry registry, ParameterType<?> parameterType) {
+            ParameterTypeRegistry child = this.child.get();
+            if (child == null) {
+                parent.removeParameterTypeListener(this);
+                return;
+            }
+            child.parameterTypeDefined(registry, parameterType);
+        }
+
+        boolean isCleared() {
+            return child.get() == null;
+        }
+    }
+
+    private static final class BoundTransformers {
+        private final ParameterByTypeTransformer defaultParameterTransformer;
+        private final ConcurrentMap<Type, Transformer<Object>> transformerByType = new ConcurrentHashMap<>();
+
+        private BoundTransformers(ParameterByTypeTransformer defaultParameterTransformer) {
+            this.defaultParameterTransformer = defaultParameterTransformer;
+        }
+
+        Transformer<Object> bind(Type toValueType) {
+            Transformer<Object> transformer = transformerByType.get(toValueType);
+            if (transformer == null) {
+                transformer = ObjectMapperTransformer.bind(defaultParameterTransformer, toValueType);
+                Transformer<Object> existing = transformerByType.putIfAbsent(toValueType, transformer);
+                if (existing != null) {
+                    transformer = existing;
+                }
+            }
+            return transformer;
+        }
+    }
+
+    private final class BuiltInTransformer<T> implements RegionTransformer<T> {
+        private final Class<T> type;
+
+        BuiltInTransformer(Class<T> type) {
+            this.type = type;
+        }
+
+        @Override
+        public T transform(CharSequence text, int[] offsets) {
+            // Built in regexps have no capture groups, so this is the whole parameter
+            return type.cast(internalParameterTransformer.transform(text, offsets[0], offsets[1], type));
+        }
+    }
 }
@@ -0,0 +1,202 @@
+package io.cucumber.cucumberexpressions;
+
+import io.cucumber.cucumberexpressions.RegexpNode.Alternation;
+import io.cucumber.cucumberexpressions.RegexpNode.Atom;
+import io.cucumber.cucumberexpressions.RegexpNode.AtomKind;
+import io.cucumber.cucumberexpressions.RegexpNode.Group;
+import io.cucumber.cucumberexpressions.RegexpNode.GroupKind;
+import io.cucumber.cucumberexpressions.RegexpNode.Quantified;
+import io.cucumber.cucumberexpressions.RegexpNode.QuantifierMode;
+import io.cucumber.cucumberexpressions.RegexpNode.Sequence;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rewrites regexps into a canonical form, so that regexps that only differ in
+ * notation can share an index entry. The rewrites are:
+ * <ul>
+ * <li>redundant non capturing groups are removed: {@code (?:\d+)} becomes {@code \d+}</li>
+ * <li>quantifiers use their shortest form: {@code {0,}} becomes {@code *} and {@code {1}} is removed,
+ * or {@code {1}+} replaced by an atomic group</li>
+ * <li>character classes that are an escape are replaced by it: {@code [^\s]} becomes {@code \S}</li>
+ * </ul>
+ * Classes like {@code \d} and {@code [0-9]} are not merged, because they differ
+ * when {@link java.util.regex.Pattern#UNICODE_CHARACTER_CLASS} is used.
+ */
+final class RegexpCanonicalizer {
+    private static final int MAX_CACHE_SIZE = 4096;
+    // Regular expressions canonicalize the regexps of their groups on every match
+    private static final StripedLruCache<String, String> CANONICAL_REGEXPS = new StripedLruCache<>(MAX_CACHE_SIZE);
+    private static final Map<String, String> CLASS_ESCAPES = new HashMap<>();
+
+    static {
+        for (String escape : new String[]{"d", "D", "s", "S", "w", "W"}) {
+            String inverse = Character.isUpperCase(escape.charAt(0)) ? escape.toLowerCase() : escape.toUpperCase();
+            CLASS_ESCAPES.put("[\\" + escape + "]", "\\" + escape);
+            CLASS_ESCAPES.put("[^\\" + escape + "]", "\\" + inverse);
+        }
+    }
+
+    private RegexpCanonicalizer() {
+    }
+
+    /**
+     * @param regexp a regexp
+     * @return an equivalent regexp in canonical form, or the regexp itself if
+     * it could not be parsed
+     */
+    static String canonicalize(String regexp) {
+        String canonical = CANONICAL_REGEXPS.get(regexp);
+        if (canonical == null) {
+            RegexpNode node = RegexpParser.parse(regexp);
+            canonical = node == null ? regexp : canonicalize(node).toRegexp();
+            CANONICAL_REGEXPS.put(regexp, canonical);
+        }
+        return canonical;
+    }
+
+    static RegexpNode canonicalize(RegexpNode node) {
+        if (node instanceof Sequence) {
+            return canonicalizeSequence((Sequence) node);
+        }
+        if (node instanceof Alternation) {
+            List<RegexpNode> alternatives = new ArrayList<>();
+            for (RegexpNode alternative : ((Alternation) node).alternatives) {
+                RegexpNode canonical = canonicalize(alternative);
+                if (canonical instanceof Alternation) {
+                    alternatives.addAll(((Alternation) canonical).alternatives);
+                } else {
+                    alternatives.add(canonical);
+                }
+            }
+            return new Alternation(alternatives);
+        }
+        if (node instanceof Group) {
+            Group group = (Group) node;
+            return group.withBody(canonicalize(group.body));
+        }
+        if (node instanceof Quantified) {
+            return canonicalizeQuantified((Quantified) node);
+        }
+        Atom atom = (Atom) node;
+        if (atom.kind == AtomKind.CLASS) {
+            String escape = CLASS_ESCAPES.get(atom.source);
+            if (escape != null) {
+                return new Atom(AtomKind.ESCAPE, escape);
+            }
+        }
+        return atom;
+    }
+
+    private static RegexpNode canonicalizeSequence(Sequence sequence) {
+        List<RegexpNode> items = new ArrayList<>();
+        for (RegexpNode item : sequence.items) {
+            items.add(canonicalize(item));
+        }
+        List<RegexpNode> result = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            RegexpNode item = items.get(i);
+            RegexpNode previous = result.isEmpty() ? null : result.get(result.size() - 1);
+            RegexpNode next = i + 1 < items.size() ? items.get(i + 1) : null;
+            RegexpNode body = isNonCapturing(item) ? ((Group) item).body : null;
+
+            if (body instanceof Alternation && items.size() == 1) {
+                // The alternation is all there is, so it doesn't need a group
+                return body;
+            }
+            if (body != null && !(body instanceof Alternation) && !hasFlags(body)
+                    && !(endsWithNumber(previous) && startsWithDigit(body))
+                    && !(endsWithNumber(body) && startsWithDigit(next))) {
+                if (body instanceof Sequence) {
+                    result.addAll(((Sequence) body).items);
+                } else {
+                    result.add(body);
+                }
+            } else {
+                result.add(item);
+            }
+        }
+        return new Sequence(result);
+    }
+
+    private static RegexpNode canonicalizeQuantified(Quantified quantified) {
+        RegexpNode body = canonicalize(quantified.body);
+        if (isNonCapturing(body)) {
+            RegexpNode unit = singleUnit(((Group) body).body);
+            if (unit != null) {
+                body = unit;
+            }
+        }
+        if (quantified.min == 1 && quantified.max == 1) {
+            // A possessive {1} makes its body atomic, which only doesn't matter for a single character
+            if (quantified.mode != QuantifierMode.POSSESSIVE || body instanceof Atom && ((Atom) body).isSingleCharacter()) {
+                return body;
+            }
+            if (body instanceof Group && ((Group) body).kind == GroupKind.ATOMIC) {
+                return body;
+            }
+            return new Group(GroupKind.ATOMIC, "(?>", isNonCapturing(body) ? ((Group) body).body : body);
+        }
+        return quantified.with(body, quantified.mode);
+    }
+
+    /**
+     * @return the node if it can be quantified without a group around it, otherwise null
+     */
+    private static RegexpNode singleUnit(RegexpNode node) {
+        if (node instanceof Sequence && ((Sequence) node).items.size() == 1) {
+            node = ((Sequence) node).items.get(0);
+        }
+        if (node instanceof Atom && ((Atom) node).isSingleCharacter()) {
+            return node;
+        }
+        if (node instanceof Atom && ((Atom) node).kind == AtomKind.BACK_REFERENCE) {
+            return node;
+        }
+        if (node instanceof Group) {
+            return node;
+        }
+        return null;
+    }
+
+    private static boolean isNonCapturing(RegexpNode node) {
+        return node instanceof Group && ((Group) node).kind == GroupKind.NON_CAPTURING;
+    }
+
+    private static boolean hasFlags(RegexpNode node) {
+        if (node instanceof Sequence) {
+            for (RegexpNode item : ((Sequence) node).items) {
+                if (hasFlags(item)) return true;
+            }
+        }
+        return node instanceof Atom && ((Atom) node).kind == AtomKind.FLAGS;
+    }
+
+    // A back reference or octal escape would take a digit after it as part of its number
+    private static boolean endsWithNumber(RegexpNode node) {
+        RegexpNode last = node;
+        while (last instanceof Sequence && !((Sequence) last).items.isEmpty()) {
+            List<RegexpNode> items = ((Sequence) last).items;
+            last = items.get(items.size() - 1);
+        }
+        if (!(last instanceof Atom)) return false;
+        Atom atom = (Atom) last;
+        return (atom.kind == AtomKind.BACK_REFERENCE && !atom.source.startsWith("\\k")) || atom.source.startsWith("\\0");
+    }
+
+    private static boolean startsWithDigit(RegexpNode node) {
+        RegexpNode first = node;
+        while (first instanceof Sequence && !((Sequence) first).items.isEmpty()) {
+            first = ((Sequence) first).items.get(0);
+        }
+        if (first instanceof Quantified) {
+            return startsWithDigit(((Quantified) first).body);
+        }
+        if (!(first instanceof Atom)) return false;
+        Atom atom = (Atom) first;
+        return atom.kind == AtomKind.LITERAL && Character.isDigit(atom.source.charAt(0));
+    }
+}
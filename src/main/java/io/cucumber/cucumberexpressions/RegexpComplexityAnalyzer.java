@@ -0,0 +1,202 @@
+package io.cucumber.cucumberexpressions;
+
+import io.cucumber.cucumberexpressions.ComplexityReport.Cost;
+import io.cucumber.cucumberexpressions.ComplexityReport.Kind;
+import io.cucumber.cucumberexpressions.ComplexityReport.Warning;
+import io.cucumber.cucumberexpressions.RegexpNode.Alternation;
+import io.cucumber.cucumberexpressions.RegexpNode.Atom;
+import io.cucumber.cucumberexpressions.RegexpNode.Group;
+import io.cucumber.cucumberexpressions.RegexpNode.GroupKind;
+import io.cucumber.cucumberexpressions.RegexpNode.Quantified;
+import io.cucumber.cucumberexpressions.RegexpNode.QuantifierMode;
+import io.cucumber.cucumberexpressions.RegexpNode.Sequence;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Finds the parts of an expression's regexp that make the regexp engine
+ * backtrack a lot when a text almost matches, without matching any text.
+ * <p>
+ * A quantifier is a backtracking risk when the characters it matches overlap
+ * with the characters that may follow it, because every split of the text
+ * between them is then tried. Splits multiply:
+ * <ul>
+ * <li>inside another quantifier, the number of splits is exponential</li>
+ * <li>followed by another quantifier, the number of splits is polynomial</li>
+ * </ul>
+ * Alternatives that match the same characters inside a quantifier are
+ * exponential too. Possessive quantifiers and atomic groups never give
+ * characters back, so they are safe.
+ */
+public final class RegexpComplexityAnalyzer {
+    private final AtomSets atomSets;
+    private final List<Warning> warnings = new ArrayList<>();
+
+    private RegexpComplexityAnalyzer(int flags) {
+        this.atomSets = new AtomSets(flags);
+    }
+
+    public static ComplexityReport analyze(Expression expression) {
+        return analyze(expression.getSource(), expression.getRegexp());
+    }
+
+    public static ComplexityReport analyze(Pattern pattern) {
+        return analyze(pattern.pattern(), pattern);
+    }
+
+    private static ComplexityReport analyze(String source, Pattern pattern) {
+        RegexpNode node = RegexpParser.parse(pattern.pattern(), pattern.flags());
+        // Inline flags would change how the characters of an atom are matched
+        if (node == null || node.hasInlineFlags()) {
+            return new ComplexityReport(source, pattern.pattern(), false, Collections.<Warning>emptyList());
+        }
+        RegexpComplexityAnalyzer analyzer = new RegexpComplexityAnalyzer(pattern.flags());
+        analyzer.analyze(node, Collections.<Atom>emptyList(), false, false);
+        return new ComplexityReport(source, pattern.pattern(), true, analyzer.warnings);
+    }
+
+    /**
+     * @param maxCost the highest cost to accept
+     * @return a validator that rejects expressions with a higher cost, and
+     * expressions whose regexp could not be analyzed
+     */
+    public static ExpressionValidator rejecting(Cost maxCost) {
+        return rejecting(maxCost, false);
+    }
+
+    /**
+     * @param maxCost          the highest cost to accept
+     * @param acceptUnanalyzed whether to accept expressions whose regexp
+     *                         could not be analyzed, e.g. because it has
+     *                         inline flags such as {@code (?i)}
+     * @return a validator that rejects expressions with a higher cost
+     */
+    public static ExpressionValidator rejecting(final Cost maxCost, final boolean acceptUnanalyzed) {
+        return new ExpressionValidator() {
+            @Override
+            public void validate(Expression expression) {
+                ComplexityReport report = analyze(expression);
+                if (!report.isAnalyzed()) {
+                    if (acceptUnanalyzed) {
+                        return;
+                    }
+                    throw new CucumberExpressionException("The cost of matching the expression could not be analyzed: " + report);
+                }
+                if (report.getCost().compareTo(maxCost) > 0) {
+                    throw new CucumberExpressionException("The expression is too expensive to match: " + report);
+                }
+            }
+        };
+    }
+
+    /**
+     * @param node            the node to analyze
+     * @param follow          the atoms that could match the first character
+     *                        after the node, or null if they are not known
+     * @param repeated        whether the node is inside an unbounded
+     *                        quantifier that backtracks
+     * @param quantifiedLater whether an unbounded quantifier may match after
+     *                        the node
+     */
+    private void analyze(RegexpNode node, List<Atom> follow, boolean repeated, boolean quantifiedLater) {
+        if (node instanceof Sequence) {
+            List<RegexpNode> items = ((Sequence) node).items;
+            for (int i = items.size() - 1; i >= 0; i--) {
+                RegexpNode item = items.get(i);
+                analyze(item, follow, repeated, quantifiedLater);
+                follow = FirstAtoms.of(item).followedBy(follow);
+                quantifiedLater |= hasUnboundedQuantifier(item);
+            }
+        } else if (node instanceof Alternation) {
+            List<RegexpNode> alternatives = ((Alternation) node).alternatives;
+            if (repeated && hasOverlappingAlternatives(alternatives)) {
+                warn(Kind.AMBIGUOUS_ALTERNATION, Cost.EXPONENTIAL, node);
+            }
+            for (RegexpNode alternative : alternatives) {
+                analyze(alternative, follow, repeated, quantifiedLater);
+            }
+        } else if (node instanceof Group) {
+            Group group = (Group) node;
+            if (group.kind.isLookaround()) {
+                return;
+            }
+            if (group.kind == GroupKind.ATOMIC) {
+                // Nothing after an atomic group makes it try again
+                analyze(group.body, Collections.<Atom>emptyList(), false, false);
+            } else {
+                analyze(group.body, follow, repeated, quantifiedLater);
+            }
+        } else if (node instanceof Quantified) {
+            analyzeQuantified((Quantified) node, follow, repeated, quantifiedLater);
+        }
+    }
+
+    private void analyzeQuantified(Quantified quantified, List<Atom> follow, boolean repeated, boolean quantifiedLater) {
+        if (quantified.mode == QuantifierMode.POSSESSIVE) {
+            // Like a greedy quantifier in an atomic group
+            analyze(quantified.with(quantified.body, QuantifierMode.GREEDY), Collections.<Atom>emptyList(), false, false);
+            return;
+        }
+        List<Atom> bodyAtoms = FirstAtoms.of(quantified.body).atoms;
+        if (quantified.isUnbounded() && overlaps(bodyAtoms, follow)) {
+            if (repeated) {
+                warn(Kind.NESTED_QUANTIFIER, Cost.EXPONENTIAL, quantified);
+            } else if (quantifiedLater) {
+                warn(Kind.OVERLAPPING_QUANTIFIERS, Cost.POLYNOMIAL, quantified);
+            }
+        }
+        // The body may be followed by another repetition of itself, or by what follows the quantifier
+        List<Atom> bodyFollow = quantified.max == 1 ? follow : FirstAtoms.union(bodyAtoms, follow);
+        boolean bodyRepeated = repeated || quantified.isUnbounded();
+        // A later repetition of the body may have quantifiers of its own
+        boolean bodyQuantifiedLater = quantifiedLater || quantified.isUnbounded()
+                || (quantified.max > 1 && hasUnboundedQuantifier(quantified.body));
+        analyze(quantified.body, bodyFollow, bodyRepeated, bodyQuantifiedLater);
+    }
+
+    private boolean hasOverlappingAlternatives(List<RegexpNode> alternatives) {
+        for (int i = 0; i < alternatives.size(); i++) {
+            for (int j = i + 1; j < alternatives.size(); j++) {
+                if (overlaps(FirstAtoms.of(alternatives.get(i)).atoms, FirstAtoms.of(alternatives.get(j)).atoms)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean overlaps(List<Atom> atoms, List<Atom> others) {
+        return atoms == null || others == null || !atomSets.isDisjoint(atoms, others);
+    }
+
+    private static boolean hasUnboundedQuantifier(RegexpNode node) {
+        if (node instanceof Sequence) {
+            for (RegexpNode item : ((Sequence) node).items) {
+                if (hasUnboundedQuantifier(item)) return true;
+            }
+            return false;
+        }
+        if (node instanceof Alternation) {
+            for (RegexpNode alternative : ((Alternation) node).alternatives) {
+                if (hasUnboundedQuantifier(alternative)) return true;
+            }
+            return false;
+        }
+        if (node instanceof Group) {
+            Group group = (Group) node;
+            return !group.kind.isLookaround() && hasUnboundedQuantifier(group.body);
+        }
+        if (node instanceof Quantified) {
+            Quantified quantified = (Quantified) node;
+            return quantified.isUnbounded() || hasUnboundedQuantifier(quantified.body);
+        }
+        return false;
+    }
+
+    private void warn(Kind kind, Cost cost, RegexpNode node) {
+        warnings.add(new Warning(kind, cost, node.toRegexp()));
+    }
+}
@@ -0,0 +1,241 @@
+package io.cucumber.cucumberexpressions;
+
+import java.util.List;
+
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * An immutable syntax tree of a {@link java.util.regex.Pattern} regexp, as
+ * parsed by {@link RegexpParser}. Serializing a tree with {@link #toRegexp()}
+ * gives back an equivalent regexp.
+ */
+abstract class RegexpNode {
+    static final int UNBOUNDED = -1;
+
+    abstract void appendTo(StringBuilder regexp);
+
+    final String toRegexp() {
+        StringBuilder regexp = new StringBuilder();
+        appendTo(regexp);
+        return regexp.toString();
+    }
+
+    /**
+     * @return true if the node contains flags such as {@code (?i)}, which
+     * change how the characters of its atoms are matched
+     */
+    boolean hasInlineFlags() {
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return toRegexp();
+    }
+
+    enum AtomKind {
+        /** A single literal character */
+        LITERAL,
+        /** An escape such as {@code \d}, {@code \n}, {@code \x41} or {@code \p{L}} */
+        ESCAPE,
+        /** A character class such as {@code [a-z]} */
+        CLASS,
+        /** The {@code .} */
+        ANY,
+        /** A boundary such as {@code ^}, {@code $} or {@code \b} that matches no characters */
+        BOUNDARY,
+        /** A back reference such as {@code \1} or {@code \k<name>} */
+        BACK_REFERENCE,
+        /** A quotation {@code \Q...\E} */
+        QUOTATION,
+        /** Inline flags such as {@code (?i)}, which apply to the rest of the enclosing group */
+        FLAGS
+    }
+
+    static final class Atom extends RegexpNode {
+        final AtomKind kind;
+        final String source;
+
+        Atom(AtomKind kind, String source) {
+            this.kind = kind;
+            this.source = source;
+        }
+
+        /**
+         * @return true if the atom matches exactly one character
+         */
+        boolean isSingleCharacter() {
+            if (kind == AtomKind.ESCAPE) {
+                // A line break or grapheme cluster may be more than one character
+                return !source.equals("\\R") && !source.equals("\\X");
+            }
+            return kind == AtomKind.LITERAL || kind == AtomKind.CLASS || kind == AtomKind.ANY;
+        }
+
+        @Override
+        boolean hasInlineFlags() {
+            return kind == AtomKind.FLAGS;
+        }
+
+        @Override
+        void appendTo(StringBuilder regexp) {
+            regexp.append(source);
+        }
+    }
+
+    static final class Sequence extends RegexpNode {
+        final List<RegexpNode> items;
+
+        Sequence(List<RegexpNode> items) {
+            this.items = unmodifiableList(items);
+        }
+
+        @Override
+        boolean hasInlineFlags() {
+            for (RegexpNode item : items) {
+                if (item.hasInlineFlags()) return true;
+            }
+            return false;
+        }
+
+        @Override
+        void appendTo(StringBuilder regexp) {
+            for (RegexpNode item : items) {
+                item.appendTo(regexp);
+            }
+        }
+    }
+
+    static final class Alternation extends RegexpNode {
+        final List<RegexpNode> alternatives;
+
+        Alternation(List<RegexpNode> alternatives) {
+            this.alternatives = unmodifiableList(alternatives);
+        }
+
+        @Override
+        boolean hasInlineFlags() {
+            for (RegexpNode alternative : alternatives) {
+                if (alternative.hasInlineFlags()) return true;
+            }
+            return false;
+        }
+
+        @Override
+        void appendTo(StringBuilder regexp) {
+            for (int i = 0; i < alternatives.size(); i++) {
+                if (i > 0) regexp.append('|');
+                alternatives.get(i).appendTo(regexp);
+            }
+        }
+    }
+
+    enum GroupKind {
+        CAPTURING,
+        NAMED_CAPTURING,
+        NON_CAPTURING,
+        /** A non capturing group with flags, such as {@code (?i:...)} */
+        FLAGS,
+        ATOMIC,
+        LOOKAHEAD,
+        NEGATIVE_LOOKAHEAD,
+        LOOKBEHIND,
+        NEGATIVE_LOOKBEHIND;
+
+        boolean isCapturing() {
+            return this == CAPTURING || this == NAMED_CAPTURING;
+        }
+
+        boolean isLookaround() {
+            return this == LOOKAHEAD || this == NEGATIVE_LOOKAHEAD || this == LOOKBEHIND || this == NEGATIVE_LOOKBEHIND;
+        }
+    }
+
+    static final class Group extends RegexpNode {
+        final GroupKind kind;
+        // The opening of the group, e.g. "(", "(?:" or "(?<name>"
+        final String prefix;
+        final RegexpNode body;
+
+        Group(GroupKind kind, String prefix, RegexpNode body) {
+            this.kind = kind;
+            this.prefix = prefix;
+            this.body = body;
+        }
+
+        Group withBody(RegexpNode body) {
+            return new Group(kind, prefix, body);
+        }
+
+        @Override
+        boolean hasInlineFlags() {
+            return kind == GroupKind.FLAGS || body.hasInlineFlags();
+        }
+
+        @Override
+        void appendTo(StringBuilder regexp) {
+            regexp.append(prefix);
+            body.appendTo(regexp);
+            regexp.append(')');
+        }
+    }
+
+    enum QuantifierMode {
+        GREEDY(""),
+        LAZY("?"),
+        POSSESSIVE("+");
+
+        private final String suffix;
+
+        QuantifierMode(String suffix) {
+            this.suffix = suffix;
+        }
+    }
+
+    static final class Quantified extends RegexpNode {
+        final RegexpNode body;
+        final int min;
+        // Or UNBOUNDED
+        final int max;
+        final QuantifierMode mode;
+
+        Quantified(RegexpNode body, int min, int max, QuantifierMode mode) {
+            this.body = body;
+            this.min = min;
+            this.max = max;
+            this.mode = mode;
+        }
+
+        boolean isUnbounded() {
+            return max == UNBOUNDED;
+        }
+
+        Quantified with(RegexpNode body, QuantifierMode mode) {
+            return new Quantified(body, min, max, mode);
+        }
+
+        @Override
+        boolean hasInlineFlags() {
+            return body.hasInlineFlags();
+        }
+
+        @Override
+        void appendTo(StringBuilder regexp) {
+            body.appendTo(regexp);
+            if (min == 0 && max == UNBOUNDED) {
+                regexp.append('*');
+            } else if (min == 1 && max == UNBOUNDED) {
+                regexp.append('+');
+            } else if (min == 0 && max == 1) {
+                regexp.append('?');
+            } else if (min == max) {
+                regexp.append('{').append(min).append('}');
+            } else if (max == UNBOUNDED) {
+                regexp.append('{').append(min).append(",}");
+            } else {
+                regexp.append('{').append(min).append(',').append(max).append('}');
+            }
+            regexp.append(mode.suffix);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package io.cucumber.cucumberexpressions;
+
+import io.cucumber.cucumberexpressions.RegexpNode.Alternation;
+import io.cucumber.cucumberexpressions.RegexpNode.Atom;
+import io.cucumber.cucumberexpressions.RegexpNode.Group;
+import io.cucumber.cucumberexpressions.RegexpNode.Quantified;
+import io.cucumber.cucumberexpressions.RegexpNode.QuantifierMode;
+import io.cucumber.cucumberexpressions.RegexpNode.Sequence;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Rewrites greedy quantifiers into possessive ones where giving back
+ * characters can never lead to a match. This stops the regexp engine from
+ * backtracking through every split of a near miss, such as
+ * {@code I have 12345 cucumberz} against {@code I have (\d+) cucumbers}.
+ * <p>
+ * A greedy quantifier of a single character, such as {@code \d+} or
+ * {@code [^"\\]*}, is made possessive when none of the characters that can
+ * follow it could also be matched by it. A character it gave back would then
+ * have to be matched by what follows, which is impossible.
+ * <p>
+ * The rewritten regexp is only equivalent when the whole text is matched,
+ * as with {@link java.util.regex.Matcher#matches()}. It has the same capture
+ * groups, which capture the same values.
+ */
+final class RegexpOptimizer {
+    private static final int UNSUPPORTED_FLAGS = Pattern.CASE_INSENSITIVE | Pattern.COMMENTS | Pattern.LITERAL | Pattern.CANON_EQ;
+
+    private final AtomSets atomSets;
+
+    private RegexpOptimizer(int flags) {
+        this.atomSets = new AtomSets(flags);
+    }
+
+    /**
+     * @param pattern the pattern to optimize
+     * @return an equivalent pattern for {@link java.util.regex.Matcher#matches()},
+     * or the pattern itself if it could not be improved
+     */
+    static Pattern optimize(Pattern pattern) {
+        String regexp = pattern.pattern();
+        String optimized = optimize(regexp, pattern.flags());
+        return optimized.equals(regexp) ? pattern : PatternCompilerProvider.getCompiler().compile(optimized, pattern.flags());
+    }
+
+    /**
+     * @param regexp the regexp to optimize
+     * @param flags  the flags the regexp is compiled with
+     * @return an equivalent regexp for {@link java.util.regex.Matcher#matches()},
+     * or the regexp itself if it could not be improved
+     */
+    static String optimize(String regexp, int flags) {
+        if ((flags & UNSUPPORTED_FLAGS) != 0) {
+            return regexp;
+        }
+        RegexpNode node = RegexpParser.parse(regexp, flags);
+        // Inline flags would change how the characters of an atom are matched
+        if (node == null || node.hasInlineFlags()) {
+            return regexp;
+        }
+        RegexpOptimizer optimizer = new RegexpOptimizer(flags);
+        RegexpNode optimized = optimizer.rewrite(node, Collections.<Atom>emptyList());
+        return optimized == node ? regexp : optimized.toRegexp();
+    }
+
+    /**
+     * @param node   the node to rewrite
+     * @param follow the atoms that could match the first character after the
+     *               node, or null if they are not known. The end of the text
+     *               doesn't need an atom.
+     * @return the rewritten node, or the node itself if nothing changed
+     */
+    private RegexpNode rewrite(RegexpNode node, List<Atom> follow) {
+        if (node instanceof Sequence) {
+            List<RegexpNode> items = ((Sequence) node).items;
+            List<RegexpNode> rewritten = new ArrayList<>(items);
+            boolean changed = false;
+            for (int i = items.size() - 1; i >= 0; i--) {
+                RegexpNode item = items.get(i);
+                RegexpNode rewrittenItem = rewrite(item, follow);
+                if (rewrittenItem != item) {
+                    rewritten.set(i, rewrittenItem);
+                    changed = true;
+                }
+                follow = FirstAtoms.of(item).followedBy(follow);
+            }
+            return changed ? new Sequence(rewritten) : node;
+        }
+        if (node instanceof Alternation) {
+            List<RegexpNode> alternatives = ((Alternation) node).alternatives;
+            List<RegexpNode> rewritten = new ArrayList<>(alternatives.size());
+            boolean changed = false;
+            for (RegexpNode alternative : alternatives) {
+                RegexpNode rewrittenAlternative = rewrite(alternative, follow);
+                rewritten.add(rewrittenAlternative);
+                changed |= rewrittenAlternative != alternative;
+            }
+            return changed ? new Alternation(rewritten) : node;
+        }
+        if (node instanceof Group) {
+            Group group = (Group) node;
+            // What follows a lookaround is not what follows its body
+            if (group.kind.isLookaround()) {
+                return node;
+            }
+            RegexpNode body = rewrite(group.body, follow);
+            return body == group.body ? node : group.withBody(body);
+        }
+        if (node instanceof Quantified) {
+            return rewriteQuantified((Quantified) node, follow);
+        }
+        return node;
+    }
+
+    private RegexpNode rewriteQuantified(Quantified quantified, List<Atom> follow) {
+        RegexpNode body = quantified.body;
+        if (quantified.mode == QuantifierMode.GREEDY && quantified.min != quantified.max
+                && body instanceof Atom && ((Atom) body).isSingleCharacter()
+                && follow != null && atomSets.isDisjoint((Atom) body, follow)) {
+            return quantified.with(body, QuantifierMode.POSSESSIVE);
+        }
+        // The body may be followed by another repetition of itself, or by what follows the quantifier
+        List<Atom> bodyFollow = quantified.max == 1 ? follow : FirstAtoms.union(FirstAtoms.of(body).atoms, follow);
+        RegexpNode rewrittenBody = rewrite(body, bodyFollow);
+        return rewrittenBody == body ? quantified : quantified.with(rewrittenBody, quantified.mode);
+    }
+}
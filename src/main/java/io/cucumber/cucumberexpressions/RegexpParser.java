@@ -0,0 +1,346 @@
+package io.cucumber.cucumberexpressions;
+
+import io.cucumber.cucumberexpressions.RegexpNode.Alternation;
+import io.cucumber.cucumberexpressions.RegexpNode.Atom;
+import io.cucumber.cucumberexpressions.RegexpNode.AtomKind;
+import io.cucumber.cucumberexpressions.RegexpNode.Group;
+import io.cucumber.cucumberexpressions.RegexpNode.GroupKind;
+import io.cucumber.cucumberexpressions.RegexpNode.Quantified;
+import io.cucumber.cucumberexpressions.RegexpNode.QuantifierMode;
+import io.cucumber.cucumberexpressions.RegexpNode.Sequence;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Parses {@link Pattern} regexps into a {@link RegexpNode} tree.
+ * <p>
+ * The parser understands the common subset of the syntax. Anything it isn't
+ * sure about, such as comments mode, makes it give up rather than guess, so
+ * callers must be prepared to work with the regexp source instead.
+ */
+final class RegexpParser {
+    private final String regexp;
+    private int pos;
+    private int capturingGroups;
+
+    private RegexpParser(String regexp) {
+        this.regexp = regexp;
+    }
+
+    /**
+     * @param regexp the regexp to parse
+     * @return the syntax tree or null if the regexp could not be parsed
+     */
+    static RegexpNode parse(String regexp) {
+        return parse(regexp, 0);
+    }
+
+    /**
+     * @param regexp the regexp to parse
+     * @param flags  the flags the regexp is compiled with
+     * @return the syntax tree or null if the regexp could not be parsed
+     */
+    static RegexpNode parse(String regexp, int flags) {
+        if ((flags & (Pattern.COMMENTS | Pattern.LITERAL)) != 0) {
+            return null;
+        }
+        RegexpParser parser = new RegexpParser(regexp);
+        try {
+            RegexpNode node = parser.parseAlternation();
+            return parser.pos == regexp.length() ? node : null;
+        } catch (UnsupportedSyntax e) {
+            return null;
+        }
+    }
+
+    private RegexpNode parseAlternation() {
+        List<RegexpNode> alternatives = new ArrayList<>();
+        alternatives.add(parseSequence());
+        while (pos < regexp.length() && regexp.charAt(pos) == '|') {
+            pos++;
+            alternatives.add(parseSequence());
+        }
+        return alternatives.size() == 1 ? alternatives.get(0) : new Alternation(alternatives);
+    }
+
+    private RegexpNode parseSequence() {
+        List<RegexpNode> items = new ArrayList<>();
+        while (pos < regexp.length() && regexp.charAt(pos) != '|' && regexp.charAt(pos) != ')') {
+            items.add(parseQuantified());
+        }
+        return new Sequence(items);
+    }
+
+    private RegexpNode parseQuantified() {
+        RegexpNode atom = parseAtom();
+        if (pos >= regexp.length()) {
+            return atom;
+        }
+        int min;
+        int max;
+        char c = regexp.charAt(pos);
+        if (c == '*') {
+            min = 0;
+            max = RegexpNode.UNBOUNDED;
+            pos++;
+        } else if (c == '+') {
+            min = 1;
+            max = RegexpNode.UNBOUNDED;
+            pos++;
+        } else if (c == '?') {
+            min = 0;
+            max = 1;
+            pos++;
+        } else if (c == '{') {
+            pos++;
+            min = parseNumber();
+            if (consume(',')) {
+                max = pos < regexp.length() && isDigit(regexp.charAt(pos)) ? parseNumber() : RegexpNode.UNBOUNDED;
+            } else {
+                max = min;
+            }
+            expect('}');
+        } else {
+            return atom;
+        }
+        QuantifierMode mode = QuantifierMode.GREEDY;
+        if (consume('?')) {
+            mode = QuantifierMode.LAZY;
+        } else if (consume('+')) {
+            mode = QuantifierMode.POSSESSIVE;
+        }
+        if (pos < regexp.length() && "*+?{".indexOf(regexp.charAt(pos)) != -1) {
+            throw new UnsupportedSyntax();
+        }
+        return new Quantified(atom, min, max, mode);
+    }
+
+    private RegexpNode parseAtom() {
+        char c = regexp.charAt(pos);
+        switch (c) {
+            case '(':
+                return parseGroup();
+            case '[': {
+                int end = classEnd(pos);
+                Atom atom = new Atom(AtomKind.CLASS, regexp.substring(pos, end));
+                pos = end;
+                return atom;
+            }
+            case '\\':
+                return parseEscape();
+            case '.':
+                pos++;
+                return new Atom(AtomKind.ANY, ".");
+            case '^':
+            case '$':
+                pos++;
+                return new Atom(AtomKind.BOUNDARY, String.valueOf(c));
+            case '*':
+            case '+':
+            case '?':
+            case '{':
+                throw new UnsupportedSyntax();
+            default:
+                int end = pos + Character.charCount(regexp.codePointAt(pos));
+                String literal = regexp.substring(pos, end);
+                pos = end;
+                return new Atom(AtomKind.LITERAL, literal);
+        }
+    }
+
+    private RegexpNode parseGroup() {
+        int start = pos;
+        GroupKind kind;
+        if (regexp.startsWith("(?:", pos)) {
+            kind = GroupKind.NON_CAPTURING;
+            pos += 3;
+        } else if (regexp.startsWith("(?=", pos)) {
+            kind = GroupKind.LOOKAHEAD;
+            pos += 3;
+        } else if (regexp.startsWith("(?!", pos)) {
+            kind = GroupKind.NEGATIVE_LOOKAHEAD;
+            pos += 3;
+        } else if (regexp.startsWith("(?<=", pos)) {
+            kind = GroupKind.LOOKBEHIND;
+            pos += 4;
+        } else if (regexp.startsWith("(?<!", pos)) {
+            kind = GroupKind.NEGATIVE_LOOKBEHIND;
+            pos += 4;
+        } else if (regexp.startsWith("(?>", pos)) {
+            kind = GroupKind.ATOMIC;
+            pos += 3;
+        } else if (regexp.startsWith("(?<", pos)) {
+            int end = regexp.indexOf('>', pos);
+            if (end == -1) throw new UnsupportedSyntax();
+            kind = GroupKind.NAMED_CAPTURING;
+            capturingGroups++;
+            pos = end + 1;
+        } else if (regexp.startsWith("(?", pos)) {
+            pos += 2;
+            while (pos < regexp.length() && (Character.isLetter(regexp.charAt(pos)) || regexp.charAt(pos) == '-')) {
+                // Comments change how the rest of the regexp is parsed
+                if (regexp.charAt(pos) == 'x') throw new UnsupportedSyntax();
+                pos++;
+            }
+            if (consume(')')) {
+                return new Atom(AtomKind.FLAGS, regexp.substring(start, pos));
+            }
+            expect(':');
+            kind = GroupKind.FLAGS;
+        } else {
+            kind = GroupKind.CAPTURING;
+            capturingGroups++;
+            pos++;
+        }
+        String prefix = regexp.substring(start, pos);
+        RegexpNode body = parseAlternation();
+        expect(')');
+        return new Group(kind, prefix, body);
+    }
+
+    private RegexpNode parseEscape() {
+        int start = pos;
+        if (pos + 1 >= regexp.length()) throw new UnsupportedSyntax();
+        char c = regexp.charAt(pos + 1);
+        pos += 2;
+        AtomKind kind = AtomKind.ESCAPE;
+        switch (c) {
+            case 'Q':
+                int end = regexp.indexOf("\\E", pos);
+                pos = end == -1 ? regexp.length() : end + 2;
+                kind = AtomKind.QUOTATION;
+                break;
+            case 'p':
+            case 'P':
+            case 'N':
+                if (consume('{')) {
+                    skipPast('}');
+                } else if (c != 'N') {
+                    pos++;
+                }
+                break;
+            case 'x':
+                if (consume('{')) {
+                    skipPast('}');
+                } else {
+                    pos += 2;
+                }
+                break;
+            case 'u':
+                pos += 4;
+                break;
+            case 'c':
+                pos++;
+                break;
+            case '0':
+                for (int i = 0; i < 3 && pos < regexp.length() && isOctalDigit(regexp.charAt(pos)); i++) {
+                    pos++;
+                }
+                break;
+            case 'k':
+                expect('<');
+                skipPast('>');
+                kind = AtomKind.BACK_REFERENCE;
+                break;
+            case 'b':
+            case 'B':
+                // \b{g} is a grapheme cluster boundary
+                if (pos < regexp.length() && regexp.charAt(pos) == '{') throw new UnsupportedSyntax();
+                kind = AtomKind.BOUNDARY;
+                break;
+            case 'A':
+            case 'G':
+            case 'Z':
+            case 'z':
+                kind = AtomKind.BOUNDARY;
+                break;
+            default:
+                if (c >= '1' && c <= '9') {
+                    // Like Pattern, take more digits as long as there are that many groups
+                    int group = c - '0';
+                    while (pos < regexp.length() && isDigit(regexp.charAt(pos))
+                            && group * 10 + (regexp.charAt(pos) - '0') <= capturingGroups) {
+                        group = group * 10 + (regexp.charAt(pos) - '0');
+                        pos++;
+                    }
+                    kind = AtomKind.BACK_REFERENCE;
+                }
+        }
+        if (pos > regexp.length()) throw new UnsupportedSyntax();
+        return new Atom(kind, regexp.substring(start, pos));
+    }
+
+    /**
+     * @return the position after the character class starting at {@code start}
+     */
+    private int classEnd(int start) {
+        int i = start + 1;
+        if (i < regexp.length() && regexp.charAt(i) == '^') i++;
+        // A leading ] is a literal
+        if (i < regexp.length() && regexp.charAt(i) == ']') i++;
+        int depth = 1;
+        while (i < regexp.length()) {
+            char c = regexp.charAt(i);
+            if (c == '\\') {
+                if (regexp.startsWith("\\Q", i)) {
+                    int end = regexp.indexOf("\\E", i + 2);
+                    if (end == -1) throw new UnsupportedSyntax();
+                    i = end + 2;
+                    continue;
+                }
+                i += 2;
+                continue;
+            }
+            if (c == '[') {
+                depth++;
+            } else if (c == ']' && --depth == 0) {
+                return i + 1;
+            }
+            i++;
+        }
+        throw new UnsupportedSyntax();
+    }
+
+    private int parseNumber() {
+        int start = pos;
+        while (pos < regexp.length() && isDigit(regexp.charAt(pos))) {
+            pos++;
+        }
+        if (start == pos || pos - start > 9) throw new UnsupportedSyntax();
+        return Integer.parseInt(regexp.substring(start, pos));
+    }
+
+    private void skipPast(char c) {
+        int end = regexp.indexOf(c, pos);
+        if (end == -1) throw new UnsupportedSyntax();
+        pos = end + 1;
+    }
+
+    private boolean consume(char c) {
+        if (pos < regexp.length() && regexp.charAt(pos) == c) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char c) {
+        if (!consume(c)) throw new UnsupportedSyntax();
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isOctalDigit(char c) {
+        return c >= '0' && c <= '7';
+    }
+
+    private static final class UnsupportedSyntax extends RuntimeException {
+        UnsupportedSyntax() {
+            super(null, null, false, false);
+        }
+    }
+}
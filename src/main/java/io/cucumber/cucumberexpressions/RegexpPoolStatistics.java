@@ -0,0 +1,62 @@
+package io.cucumber.cucumberexpressions;
+
+/**
+ * Reports how much the sharing of compiled regexps between expressions saves.
+ * Expressions whose final regexps and flags are identical share one compiled
+ * pattern and capture group tree.
+ */
+public final class RegexpPoolStatistics {
+    private final int pooledRegexps;
+    private final long requests;
+    private final long hits;
+    private final long estimatedBytesSaved;
+
+    RegexpPoolStatistics(int pooledRegexps, long requests, long hits, long estimatedBytesSaved) {
+        this.pooledRegexps = pooledRegexps;
+        this.requests = requests;
+        this.hits = hits;
+        this.estimatedBytesSaved = estimatedBytesSaved;
+    }
+
+    /**
+     * @return the current statistics of the pool
+     */
+    public static RegexpPoolStatistics snapshot() {
+        return TreeRegexpPool.getStatistics();
+    }
+
+    /**
+     * @return the number of distinct compiled regexps in use
+     */
+    public int getPooledRegexps() {
+        return pooledRegexps;
+    }
+
+    /**
+     * @return the number of expressions that asked for a compiled regexp
+     */
+    public long getRequests() {
+        return requests;
+    }
+
+    /**
+     * @return the number of expressions that shared an already compiled regexp
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return a rough estimate of the heap not used because compiled regexps were
+     * shared. Shared regexps that have since been released are included.
+     */
+    public long getEstimatedBytesSaved() {
+        return estimatedBytesSaved;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d pooled regexps, %d of %d requests shared, ~%d bytes saved",
+                pooledRegexps, hits, requests, estimatedBytesSaved);
+    }
+}
@@ -0,0 +1,29 @@
+package io.cucumber.cucumberexpressions;
+
+/**
+ * Transformer for a @{@link ParameterType} that reads its capture groups
+ * directly from the matched text. Unlike {@link Transformer} and
+ * {@link CaptureGroupTransformer} no intermediate strings are created,
+ * which makes this the cheapest way to parse numbers and other values
+ * that don't need a {@link String}.
+ *
+ * @param <T> the type to transform to.
+ */
+public interface RegionTransformer<T> {
+    /**
+     * Transforms a region of the matched text into an object. The offsets
+     * describe the top level capture groups in the regular expressions in
+     * order, or the whole match of the parameter if there are none. Nested
+     * capture groups are ignored.
+     * <p>
+     * Group {@code i} spans from {@code offsets[2 * i]} (inclusive) to
+     * {@code offsets[2 * i + 1]} (exclusive). If a capture group is optional
+     * and did not participate in the match both offsets are -1.
+     *
+     * @param text    the text that was matched
+     * @param offsets the start and end offsets of the capture groups in {@code text}
+     * @return the transformed object
+     * @throws Throwable if transformation failed
+     */
+    T transform(CharSequence text, int[] offsets) throws Throwable;
+}
@@ -7,6 +7,14 @@ import java.util.regex.Pattern;
 
 import static io.cucumber.cucumberexpressions.ParameterType.createAnonymousParameterType;
 
+/**
+ * An expression that is a regular expression. The values of its capture
+ * groups are transformed by the parameter type whose regexp is the same as
+ * the group's. Regexps that only differ in notation are the same, so
+ * {@code ([\d]+)}, {@code ((?:\d+))} and {@code (\d{1,})} are transformed
+ * like {@code (\d+)}, to an {@link Integer}. Groups whose regexp is no
+ * parameter type's are transformed to a {@link String}, or to the type hint.
+ */
 public class RegularExpression implements Expression {
     private final Pattern expressionRegexp;
     private final ParameterTypeRegistry parameterTypeRegistry;
@@ -21,14 +29,45 @@ public class RegularExpression implements Expression {
      * @param parameterTypeRegistry used to look up parameter types
      */
     public RegularExpression(Pattern expressionRegexp, ParameterTypeRegistry parameterTypeRegistry) {
+        ExpressionInstrumentation expressionInstrumentation = parameterTypeRegistry.getExpressionInstrumentation();
+        long start = expressionInstrumentation == null ? 0 : System.nanoTime();
         this.expressionRegexp = expressionRegexp;
         this.parameterTypeRegistry = parameterTypeRegistry;
-        this.treeRegexp = new TreeRegexp(expressionRegexp);
+        this.treeRegexp = TreeRegexpPool.intern(expressionRegexp);
+        if (expressionInstrumentation != null) {
+            long durationNanos = System.nanoTime() - start;
+            expressionInstrumentation.regexpCompiled(this, durationNanos);
+            expressionInstrumentation.expressionCreated(this, durationNanos);
+        }
     }
 
     @Override
     public List<Argument<?>> match(String text, Type... typeHints) {
-        final ParameterByTypeTransformer defaultTransformer = parameterTypeRegistry.getDefaultParameterTransformer();
+        return matchSequence(text, typeHints);
+    }
+
+    /**
+     * Like {@link #match(String, Type...)}, but matches any text without
+     * copying it to a string. The arguments refer to the text.
+     */
+    List<Argument<?>> matchSequence(CharSequence text, Type... typeHints) {
+        ExpressionInstrumentation expressionInstrumentation = parameterTypeRegistry.getExpressionInstrumentation();
+        // Parameter types are resolved by the regexps of the groups for each match
+        long start = expressionInstrumentation == null ? 0 : LatencySampling.start();
+        List<ParameterType<?>> parameterTypes = resolveParameterTypes(text, typeHints);
+        if (expressionInstrumentation != null) {
+            expressionInstrumentation.parameterTypesResolved(this, LatencySampling.elapsed(start));
+        }
+
+        Group group = parameterTypeRegistry.match(this, treeRegexp, text, expressionInstrumentation);
+        return Argument.build(treeRegexp, group, parameterTypes, expressionInstrumentation);
+    }
+
+    /**
+     * @param text the text being matched, to explain ambiguous parameter types
+     * @return the parameter types of the capture groups
+     */
+    List<ParameterType<?>> resolveParameterTypes(CharSequence text, Type... typeHints) {
         final List<ParameterType<?>> parameterTypes = new ArrayList<>();
         int typeHintIndex = 0;
         for (GroupBuilder groupBuilder : treeRegexp.getGroupBuilder().getChildren()) {
@@ -43,15 +82,21 @@ public class RegularExpression implements Expression {
 
             // Either from createAnonymousParameterType or lookupByRegexp
             if (parameterType.isAnonymous()) {
-                Transformer<Object> transformer = new ObjectMapperTransformer(defaultTransformer, typeHint);
+                Transformer<Object> transformer = parameterTypeRegistry.bindDefaultParameterTransformer(typeHint);
                 parameterType = parameterType.deAnonymize(typeHint, transformer);
             }
 
             parameterTypes.add(parameterType);
         }
+        return parameterTypes;
+    }
 
+    TreeRegexp getTreeRegexp() {
+        return treeRegexp;
+    }
 
-        return Argument.build(treeRegexp, parameterTypes, text);
+    ParameterTypeRegistry getParameterTypeRegistry() {
+        return parameterTypeRegistry;
     }
 
     @Override
@@ -0,0 +1,380 @@
+package io.cucumber.cucumberexpressions;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Matches a stream of texts, e.g. the lines of a large step log, against an
+ * {@link ExpressionSet}.
+ * <p>
+ * The texts are matched in chunks on an executor service, and reported to a
+ * {@link Listener} on the calling thread in the order of the input. At most a
+ * fixed number of chunks are read ahead of the listener, so memory stays
+ * bounded however long the input is, and a slow listener slows down the
+ * reading.
+ * <p>
+ * Lines read from a {@link Reader} are not copied to strings. They are views
+ * of the buffer they were read into, and so are the values of their groups
+ * until asked for. Lines of a file are read through memory mapped windows,
+ * and ASCII lines are views of the mapped bytes.
+ */
+public final class StreamingMatcher {
+    private static final int BUFFER_SIZE = 8192;
+    private static final int WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private final ExpressionSet expressionSet;
+    private final ExecutorService executorService;
+    private final int chunkSize;
+    private final int maxChunksInFlight;
+
+    /**
+     * @param expressionSet     the expressions to match the texts against
+     * @param executorService   the executor service to match the chunks with
+     * @param chunkSize         the number of texts in a chunk
+     * @param maxChunksInFlight the maximum number of chunks read but not yet reported
+     */
+    public StreamingMatcher(ExpressionSet expressionSet, ExecutorService executorService, int chunkSize, int maxChunksInFlight) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+        if (maxChunksInFlight <= 0) {
+            throw new IllegalArgumentException("maxChunksInFlight must be positive: " + maxChunksInFlight);
+        }
+        this.expressionSet = expressionSet;
+        this.executorService = executorService;
+        this.chunkSize = chunkSize;
+        this.maxChunksInFlight = maxChunksInFlight;
+    }
+
+    /**
+     * Matches each text.
+     *
+     * @param texts    the texts to match
+     * @param listener is told about each text, in order
+     */
+    public void match(final Iterator<? extends CharSequence> texts, Listener listener) {
+        try {
+            match(new ChunkSource() {
+                @Override
+                public List<CharSequence> next() {
+                    List<CharSequence> chunk = new ArrayList<>(chunkSize);
+                    while (chunk.size() < chunkSize && texts.hasNext()) {
+                        chunk.add(texts.next());
+                    }
+                    return chunk.isEmpty() ? null : chunk;
+                }
+            }, listener);
+        } catch (IOException e) {
+            // Iterators can't throw IOException
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Matches each line. Lines end with {@code \n} or {@code \r\n}.
+     *
+     * @param reader   the lines to match. It is not closed.
+     * @param listener is told about each line, in order
+     * @throws IOException when reading fails
+     */
+    public void matchLines(Reader reader, Listener listener) throws IOException {
+        match(new LineChunkSource(reader, chunkSize), listener);
+    }
+
+    /**
+     * Matches each line of a file, without reading it into the heap. Lines
+     * end with {@code \n} or {@code \r\n}. ASCII lines are matched where
+     * they are mapped, and only the values of their groups are copied, when
+     * asked for. Other lines are decoded first.
+     *
+     * @param channel  the file. It is not closed.
+     * @param charset  the encoding of the file, UTF-8, US-ASCII or ISO-8859-1
+     * @param listener is told about each line, in order
+     * @throws IOException when reading fails
+     */
+    public void matchLines(FileChannel channel, Charset charset, Listener listener) throws IOException {
+        matchLines(channel, charset, listener, WINDOW_SIZE);
+    }
+
+    // visible from tests
+    void matchLines(FileChannel channel, Charset charset, Listener listener, int windowSize) throws IOException {
+        match(new MappedLineChunkSource(channel, charset, chunkSize, windowSize), listener);
+    }
+
+    private void match(ChunkSource source, Listener listener) throws IOException {
+        Deque<Chunk> inFlight = new ArrayDeque<>();
+        try {
+            long index = 0;
+            List<CharSequence> texts;
+            while ((texts = source.next()) != null) {
+                inFlight.add(new Chunk(index, texts, executorService.submit(new MatchChunk(expressionSet, texts))));
+                index += texts.size();
+                if (inFlight.size() == maxChunksInFlight) {
+                    report(inFlight.poll(), listener);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                report(inFlight.poll(), listener);
+            }
+        } finally {
+            for (Chunk chunk : inFlight) {
+                chunk.matches.cancel(true);
+            }
+        }
+    }
+
+    private static void report(Chunk chunk, Listener listener) {
+        List<ExpressionMatch> matches;
+        try {
+            matches = chunk.matches.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CucumberExpressionException("Interrupted while matching", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new CucumberExpressionException("Failed to match", cause);
+        }
+        for (int i = 0; i < matches.size(); i++) {
+            listener.onText(chunk.index + i, chunk.texts.get(i), matches.get(i));
+        }
+    }
+
+    public interface Listener {
+        /**
+         * @param index the index of the text in the input, starting at 0
+         * @param text  the text
+         * @param match the first expression that matched, or null if none did
+         */
+        void onText(long index, CharSequence text, ExpressionMatch match);
+    }
+
+    private interface ChunkSource {
+        /**
+         * @return the next texts, or null at the end of the input
+         */
+        List<CharSequence> next() throws IOException;
+    }
+
+    private static final class Chunk {
+        private final long index;
+        private final List<CharSequence> texts;
+        private final Future<List<ExpressionMatch>> matches;
+
+        Chunk(long index, List<CharSequence> texts, Future<List<ExpressionMatch>> matches) {
+            this.index = index;
+            this.texts = texts;
+            this.matches = matches;
+        }
+    }
+
+    private static final class MatchChunk implements Callable<List<ExpressionMatch>> {
+        private final ExpressionSet expressionSet;
+        private final List<CharSequence> texts;
+
+        MatchChunk(ExpressionSet expressionSet, List<CharSequence> texts) {
+            this.expressionSet = expressionSet;
+            this.texts = texts;
+        }
+
+        @Override
+        public List<ExpressionMatch> call() {
+            List<ExpressionMatch> matches = new ArrayList<>(texts.size());
+            for (CharSequence text : texts) {
+                matches.add(expressionSet.scan(text));
+            }
+            return matches;
+        }
+    }
+
+    /**
+     * Reads lines into an array that is only ever appended to, so the lines
+     * of the chunks that are still being matched stay as they are. Lines read
+     * but not yet handed out are left in the array for the next chunk. Only
+     * when the array is full is the start of the line that continues after it
+     * copied to a new array.
+     */
+    private static final class LineChunkSource implements ChunkSource {
+        private final Reader reader;
+        private final int chunkSize;
+        private char[] chars = new char[BUFFER_SIZE];
+        // The number of chars read into the array
+        private int length;
+        // The start of the first line not handed out yet
+        private int lineStart;
+        // The number of chars looked at for line ends
+        private int scanned;
+        private boolean endOfInput;
+
+        LineChunkSource(Reader reader, int chunkSize) {
+            this.reader = reader;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public List<CharSequence> next() throws IOException {
+            List<CharSequence> lines = new ArrayList<>(chunkSize);
+            while (lines.size() < chunkSize) {
+                while (scanned < length && lines.size() < chunkSize) {
+                    if (chars[scanned] == '\n') {
+                        lines.add(line(chars, lineStart, scanned));
+                        lineStart = scanned + 1;
+                    }
+                    scanned++;
+                }
+                if (lines.size() == chunkSize) {
+                    break;
+                }
+                if (endOfInput) {
+                    if (lineStart < length) {
+                        lines.add(line(chars, lineStart, length));
+                        lineStart = length;
+                    }
+                    break;
+                }
+                if (length == chars.length) {
+                    // The lines so far keep the old array, which doesn't change
+                    int partialLength = length - lineStart;
+                    char[] next = new char[Math.max(BUFFER_SIZE, 2 * partialLength)];
+                    System.arraycopy(chars, lineStart, next, 0, partialLength);
+                    chars = next;
+                    length = partialLength;
+                    scanned = partialLength;
+                    lineStart = 0;
+                }
+                int read = reader.read(chars, length, chars.length - length);
+                if (read == -1) {
+                    endOfInput = true;
+                } else {
+                    length += read;
+                }
+            }
+            return lines.isEmpty() ? null : lines;
+        }
+
+        private static CharSequence line(char[] chars, int start, int end) {
+            if (end > start && chars[end - 1] == '\r') {
+                end--;
+            }
+            return new CharArraySequence(chars, start, end - start);
+        }
+    }
+
+    /**
+     * Maps a window of the file at a time. A window starts at the start of a
+     * line, so a line that doesn't end in a window is mapped again with the
+     * next one. The windows of lines that are still being matched stay mapped
+     * until the lines are no longer used.
+     */
+    private static final class MappedLineChunkSource implements ChunkSource {
+        private final FileChannel channel;
+        // One byte per char, so every line can be a view of the bytes
+        private final boolean singleByte;
+        private final CharsetDecoder decoder;
+        private final int chunkSize;
+        private final int windowSize;
+        private final long size;
+        private ByteBuffer window;
+        private long windowStart;
+        private int position;
+
+        MappedLineChunkSource(FileChannel channel, Charset charset, int chunkSize, int windowSize) throws IOException {
+            // In these encodings, a newline byte is always a newline
+            if (!charset.equals(StandardCharsets.UTF_8) && !charset.equals(StandardCharsets.US_ASCII) && !charset.equals(StandardCharsets.ISO_8859_1)) {
+                throw new IllegalArgumentException("Lines can only be read from UTF-8, US-ASCII or ISO-8859-1 files, not " + charset);
+            }
+            this.channel = channel;
+            this.singleByte = charset.equals(StandardCharsets.ISO_8859_1);
+            this.decoder = charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            this.chunkSize = chunkSize;
+            this.windowSize = windowSize;
+            this.size = channel.size();
+        }
+
+        @Override
+        public List<CharSequence> next() throws IOException {
+            List<CharSequence> lines = new ArrayList<>(chunkSize);
+            while (lines.size() < chunkSize) {
+                if (window == null || position == window.limit()) {
+                    long start = window == null ? 0 : windowStart + window.limit();
+                    if (start >= size) {
+                        break;
+                    }
+                    map(start, windowSize);
+                }
+                int end = indexOfNewline();
+                if (end != -1) {
+                    lines.add(line(position, end));
+                    position = end + 1;
+                } else if (windowStart + window.limit() == size) {
+                    lines.add(line(position, window.limit()));
+                    position = window.limit();
+                } else {
+                    // The line continues after the window
+                    int length = position == 0 ? (int) Math.min(Integer.MAX_VALUE, 2L * window.limit()) : windowSize;
+                    map(windowStart + position, length);
+                }
+            }
+            return lines.isEmpty() ? null : lines;
+        }
+
+        private void map(long start, int length) throws IOException {
+            window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(length, size - start));
+            windowStart = start;
+            position = 0;
+        }
+
+        private int indexOfNewline() {
+            for (int i = position; i < window.limit(); i++) {
+                if (window.get(i) == '\n') {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private CharSequence line(int start, int end) throws IOException {
+            if (end > start && window.get(end - 1) == '\r') {
+                end--;
+            }
+            if (!singleByte) {
+                for (int i = start; i < end; i++) {
+                    if (window.get(i) < 0) {
+                        return decode(start, end);
+                    }
+                }
+            }
+            return new ByteCharSequence(window, start, end - start);
+        }
+
+        private CharSequence decode(int start, int end) throws IOException {
+            ByteBuffer bytes = window.duplicate();
+            // Through Buffer, whose methods return Buffer on every Java version
+            Buffer buffer = bytes;
+            buffer.limit(end);
+            buffer.position(start);
+            CharBuffer chars = decoder.decode(bytes);
+            return new CharArraySequence(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining());
+        }
+    }
+}
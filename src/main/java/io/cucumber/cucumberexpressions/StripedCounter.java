@@ -0,0 +1,46 @@
+package io.cucumber.cucumberexpressions;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A counter that threads can add to without contending, by adding to one of
+ * several stripes. Reading the count sums the stripes.
+ */
+final class StripedCounter {
+    static final int STRIPES = stripes();
+    // Keeps the stripes on different cache lines
+    private static final int PADDING = 8;
+
+    private final AtomicLongArray cells = new AtomicLongArray(STRIPES * PADDING);
+
+    private static int stripes() {
+        int stripes = 1;
+        while (stripes < Runtime.getRuntime().availableProcessors() && stripes < 8) {
+            stripes <<= 1;
+        }
+        return stripes;
+    }
+
+    /**
+     * @return the stripe of the current thread
+     */
+    static int stripe() {
+        return (int) Thread.currentThread().getId() & (STRIPES - 1);
+    }
+
+    void increment() {
+        add(1);
+    }
+
+    void add(long n) {
+        cells.getAndAdd(stripe() * PADDING, n);
+    }
+
+    long sum() {
+        long sum = 0;
+        for (int i = 0; i < STRIPES; i++) {
+            sum += cells.get(i * PADDING);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,106 @@
+package io.cucumber.cucumberexpressions;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded cache that evicts the least recently used entries. The entries
+ * are spread over several independently locked segments, so threads using
+ * different keys rarely wait for each other. Each segment evicts on its own,
+ * so the cache as a whole evicts only approximately in LRU order.
+ */
+final class StripedLruCache<K, V> {
+    private final Segment[] segments;
+    // Or null
+    private final Weigher<K, V> weigher;
+    private final AtomicLong weight = new AtomicLong();
+
+    StripedLruCache(int maximumSize) {
+        this(maximumSize, null);
+    }
+
+    /**
+     * @param maximumSize the maximum number of entries
+     * @param weigher     estimates the size of the entries, or null
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    StripedLruCache(int maximumSize, Weigher<K, V> weigher) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive: " + maximumSize);
+        }
+        this.weigher = weigher;
+        int segmentCount = Math.min(StripedCounter.STRIPES, Integer.highestOneBit(maximumSize));
+        segments = new StripedLruCache.Segment[segmentCount];
+        int segmentSize = (maximumSize + segmentCount - 1) / segmentCount;
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(segmentSize);
+        }
+    }
+
+    V get(K key) {
+        Segment segment = segment(key);
+        synchronized (segment) {
+            return segment.get(key);
+        }
+    }
+
+    void put(K key, V value) {
+        Segment segment = segment(key);
+        synchronized (segment) {
+            V previous = segment.put(key, value);
+            if (weigher != null) {
+                weight.addAndGet(weigher.weigh(key, value) - (previous == null ? 0 : weigher.weigh(key, previous)));
+            }
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return the estimated size of the entries, or 0 without a weigher
+     */
+    long weight() {
+        return weight.get();
+    }
+
+    private Segment segment(K key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+
+    interface Weigher<K, V> {
+        /**
+         * @return the estimated size of an entry
+         */
+        long weigh(K key, V value);
+    }
+
+    private final class Segment extends LinkedHashMap<K, V> {
+        private final int maximumSize;
+
+        Segment(int maximumSize) {
+            super(16, 0.75f, true);
+            this.maximumSize = maximumSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            if (size() <= maximumSize) {
+                return false;
+            }
+            if (weigher != null) {
+                weight.addAndGet(-weigher.weigh(eldest.getKey(), eldest.getValue()));
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package io.cucumber.cucumberexpressions;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Matches a range of steps against all expressions of a set, splitting the
+ * range until it is small enough to match on one thread.
+ */
+final class SuiteAnalysisTask extends RecursiveTask<SuiteAnalysisTask.Result> {
+    private static final int THRESHOLD = 16;
+
+    private final ExpressionSet expressionSet;
+    private final List<String> steps;
+    private final int start;
+    private final int end;
+
+    SuiteAnalysisTask(ExpressionSet expressionSet, List<String> steps, int start, int end) {
+        this.expressionSet = expressionSet;
+        this.steps = steps;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    protected Result compute() {
+        if (end - start <= THRESHOLD) {
+            return analyze();
+        }
+        int middle = (start + end) >>> 1;
+        SuiteAnalysisTask left = new SuiteAnalysisTask(expressionSet, steps, start, middle);
+        left.fork();
+        Result right = new SuiteAnalysisTask(expressionSet, steps, middle, end).compute();
+        return left.join().merge(right);
+    }
+
+    private Result analyze() {
+        List<Expression> expressions = expressionSet.getExpressions();
+        Result result = new Result();
+        for (int i = start; i < end; i++) {
+            String step = steps.get(i);
+            if (expressionSet.isKnownMiss(step)) {
+                result.undefinedSteps.add(step);
+                continue;
+            }
+            List<Expression> matching = new ArrayList<>(1);
+            for (int index = 0; index < expressions.size(); index++) {
+                Expression expression = expressions.get(index);
+                if (expression.match(step) != null) {
+                    matching.add(expression);
+                    result.usedExpressions.set(index);
+                }
+            }
+            result.matchAttempts += expressions.size();
+            if (matching.isEmpty()) {
+                expressionSet.miss(step);
+                result.undefinedSteps.add(step);
+            } else if (matching.size() > 1) {
+                result.ambiguousSteps.put(step, matching);
+            }
+        }
+        return result;
+    }
+
+    static final class Result {
+        final List<String> undefinedSteps = new ArrayList<>();
+        final Map<String, List<Expression>> ambiguousSteps = new LinkedHashMap<>();
+        final BitSet usedExpressions = new BitSet();
+        long matchAttempts;
+
+        /**
+         * Appends the result of the steps after these.
+         */
+        Result merge(Result next) {
+            undefinedSteps.addAll(next.undefinedSteps);
+            ambiguousSteps.putAll(next.ambiguousSteps);
+            usedExpressions.or(next.usedExpressions);
+            matchAttempts += next.matchAttempts;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package io.cucumber.cucumberexpressions;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The steps of a suite that match none or more than one of the expressions
+ * of an {@link ExpressionSet}, and the expressions that match none of the
+ * steps. See {@link ExpressionSet#analyze(java.util.Collection)}.
+ */
+public final class SuiteReport {
+    private final List<String> undefinedSteps;
+    private final Map<String, List<Expression>> ambiguousSteps;
+    private final List<Expression> unusedExpressions;
+    private final int steps;
+    private final long matchAttempts;
+    private final long elapsedNanos;
+
+    SuiteReport(List<String> undefinedSteps, Map<String, List<Expression>> ambiguousSteps, List<Expression> unusedExpressions, int steps, long matchAttempts, long elapsedNanos) {
+        this.undefinedSteps = Collections.unmodifiableList(undefinedSteps);
+        this.ambiguousSteps = Collections.unmodifiableMap(ambiguousSteps);
+        this.unusedExpressions = Collections.unmodifiableList(unusedExpressions);
+        this.steps = steps;
+        this.matchAttempts = matchAttempts;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return the steps that matched no expression, in the order of the steps
+     */
+    public List<String> getUndefinedSteps() {
+        return undefinedSteps;
+    }
+
+    /**
+     * @return the steps that matched more than one expression, with the
+     * expressions in the order they were discovered
+     */
+    public Map<String, List<Expression>> getAmbiguousSteps() {
+        return ambiguousSteps;
+    }
+
+    /**
+     * @return the expressions that matched no step, in the order they were discovered
+     */
+    public List<Expression> getUnusedExpressions() {
+        return unusedExpressions;
+    }
+
+    /**
+     * @return the number of distinct steps that were analyzed
+     */
+    public int getSteps() {
+        return steps;
+    }
+
+    /**
+     * @return the number of times a step was matched against an expression
+     */
+    public long getMatchAttempts() {
+        return matchAttempts;
+    }
+
+    /**
+     * @return how long the analysis took
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return the number of times a step was matched against an expression per second
+     */
+    public double getMatchAttemptsPerSecond() {
+        return elapsedNanos == 0 ? 0 : matchAttempts * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d steps: %d undefined, %d ambiguous, %d unused expressions (%d matches in %d ms, %.0f/s)",
+                steps,
+                undefinedSteps.size(),
+                ambiguousSteps.size(),
+                unusedExpressions.size(),
+                matchAttempts,
+                elapsedNanos / 1000000,
+                getMatchAttemptsPerSecond()
+        );
+    }
+}
@@ -0,0 +1,80 @@
+package io.cucumber.cucumberexpressions;
+
+/**
+ * The outcome of transforming the value of an {@link Argument}.
+ * <p>
+ * Unlike {@link Argument#getValue()}, {@link Argument#tryGetValue()} does not
+ * throw when the transform fails. The {@link CucumberExpressionException}
+ * describing the failure is only created when it is asked for, so callers
+ * that merely need to know whether a value converts don't pay for building
+ * an exception and its stack trace.
+ *
+ * @param <T> the type of the transformed value
+ */
+public final class TransformResult<T> {
+    private final T value;
+    private final ParameterType<T> parameterType;
+    private final CharSequence text;
+    private final int[] offsets;
+    private final Throwable cause;
+    private final boolean success;
+    private CucumberExpressionException exception;
+
+    static <T> TransformResult<T> success(T value) {
+        return new TransformResult<>(value, null, null, null, null, true);
+    }
+
+    /**
+     * @param cause the exception thrown by the transformer, or null if
+     *              the parameter type could not be used to transform at all
+     */
+    static <T> TransformResult<T> failure(ParameterType<T> parameterType, CharSequence text, int[] offsets, Throwable cause) {
+        return new TransformResult<>(null, parameterType, text, offsets, cause, false);
+    }
+
+    private TransformResult(T value, ParameterType<T> parameterType, CharSequence text, int[] offsets, Throwable cause, boolean success) {
+        this.value = value;
+        this.parameterType = parameterType;
+        this.text = text;
+        this.offsets = offsets;
+        this.cause = cause;
+        this.success = success;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    /**
+     * @return the transformed value
+     * @throws CucumberExpressionException if the transform failed
+     */
+    public T getValue() {
+        if (!success) {
+            throw getException();
+        }
+        return value;
+    }
+
+    /**
+     * @return the exception thrown by the transformer, or null if the
+     * transform succeeded or failed without one
+     */
+    public Throwable getCause() {
+        return cause;
+    }
+
+    /**
+     * @return the exception {@link Argument#getValue()} would have thrown,
+     * or null if the transform succeeded
+     */
+    public synchronized CucumberExpressionException getException() {
+        if (success) {
+            return null;
+        }
+        if (exception == null) {
+            exception = parameterType.createTransformException(text, offsets, cause);
+        }
+        return exception;
+    }
+}
@@ -1,8 +1,11 @@
 package io.cucumber.cucumberexpressions;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -14,7 +17,11 @@ import java.util.regex.Pattern;
  */
 class TreeRegexp {
     private final Pattern pattern;
+    // Equivalent to pattern, but with less backtracking
+    private final Pattern matchPattern;
     private final GroupBuilder groupBuilder;
+    // Finds the regexp anywhere in a text, created when first needed
+    private volatile Pattern findPattern;
 
     TreeRegexp(String regexp) {
         this(PatternCompilerProvider.getCompiler().compile(regexp, Pattern.UNICODE_CHARACTER_CLASS));
@@ -22,6 +29,7 @@ class TreeRegexp {
 
     TreeRegexp(Pattern pattern) {
         this.pattern = pattern;
+        this.matchPattern = RegexpOptimizer.optimize(pattern);
         String source = pattern.pattern();
         char[] chars = source.toCharArray();
         Deque<GroupBuilder> stack = new ArrayDeque<>();
@@ -63,6 +71,7 @@ class TreeRegexp {
             n++;
         }
         groupBuilder = stack.pop();
+        groupBuilder.freeze();
     }
 
     Pattern pattern() {
@@ -70,9 +79,128 @@ class TreeRegexp {
     }
 
     Group match(CharSequence s) {
-        final Matcher matcher = pattern.matcher(s);
-        if (!matcher.matches()) return null;
-        return groupBuilder.build(matcher, new IntRange(0, matcher.groupCount() + 1));
+        final Matcher matcher = matcher(s);
+        if (matcher == null) return null;
+        return build(s, matcher);
+    }
+
+    /**
+     * Matches like {@link #match(CharSequence)}, but gives up when the deadline
+     * passes.
+     *
+     * @throws DeadlineCharSequence.DeadlineExceeded when the deadline passed
+     */
+    Group match(CharSequence s, long deadlineNanos) {
+        final Matcher matcher = matcher(s, deadlineNanos);
+        if (matcher == null) return null;
+        // The groups read the original text, which doesn't have to check the time
+        return build(s, matcher);
+    }
+
+    /**
+     * @return a matcher that matched all of {@code s}, or null if it didn't match
+     */
+    Matcher matcher(CharSequence s) {
+        final Matcher matcher = matchPattern.matcher(s);
+        return matcher.matches() ? matcher : null;
+    }
+
+    /**
+     * @throws DeadlineCharSequence.DeadlineExceeded when the deadline passed
+     * @see #matcher(CharSequence)
+     */
+    Matcher matcher(CharSequence s, long deadlineNanos) {
+        final Matcher matcher = matchPattern.matcher(new DeadlineCharSequence(s, deadlineNanos));
+        return matcher.matches() ? matcher : null;
+    }
+
+    /**
+     * @param s       the text that was matched
+     * @param matcher a matcher returned by {@link #matcher(CharSequence)}
+     * @return the groups of the match
+     */
+    Group build(CharSequence s, Matcher matcher) {
+        return groupBuilder.build(s, matcher, new IntRange(0, matcher.groupCount() + 1));
+    }
+
+    /**
+     * @return a matcher that finds the regexp anywhere in {@code s}, ignoring
+     * the anchors at the start and end of the regexp
+     */
+    Matcher finder(CharSequence s) {
+        Pattern findPattern = this.findPattern;
+        if (findPattern == null) {
+            // Not the match pattern, its rewrites assume the match ends at the end of the text
+            String regexp = stripAnchors(pattern.pattern(), pattern.flags());
+            findPattern = regexp.equals(pattern.pattern())
+                    ? pattern
+                    : PatternCompilerProvider.getCompiler().compile(regexp, pattern.flags());
+            this.findPattern = findPattern;
+        }
+        return findPattern.matcher(s);
+    }
+
+    /**
+     * @return the regexp without the {@code ^} and {@code $} at the start and
+     * end of each of its top level alternatives
+     */
+    static String stripAnchors(String regexp, int flags) {
+        RegexpNode node = RegexpParser.parse(regexp, flags);
+        if (node == null) {
+            return stripOuterAnchors(regexp);
+        }
+        RegexpNode stripped;
+        if (node instanceof RegexpNode.Alternation) {
+            List<RegexpNode> alternatives = new ArrayList<>();
+            for (RegexpNode alternative : ((RegexpNode.Alternation) node).alternatives) {
+                alternatives.add(stripAnchors(alternative));
+            }
+            stripped = new RegexpNode.Alternation(alternatives);
+        } else {
+            stripped = stripAnchors(node);
+        }
+        String strippedRegexp = stripped.toRegexp();
+        // Keep the regexp as it is written when there were no anchors
+        return strippedRegexp.equals(node.toRegexp()) ? regexp : strippedRegexp;
+    }
+
+    private static RegexpNode stripAnchors(RegexpNode node) {
+        List<RegexpNode> items = node instanceof RegexpNode.Sequence
+                ? new ArrayList<>(((RegexpNode.Sequence) node).items)
+                : new ArrayList<>(Collections.singletonList(node));
+        if (!items.isEmpty() && isAnchor(items.get(0), "^")) {
+            items.remove(0);
+        }
+        if (!items.isEmpty() && isAnchor(items.get(items.size() - 1), "$")) {
+            items.remove(items.size() - 1);
+        }
+        return new RegexpNode.Sequence(items);
+    }
+
+    private static boolean isAnchor(RegexpNode node, String anchor) {
+        return node instanceof RegexpNode.Atom
+                && ((RegexpNode.Atom) node).kind == RegexpNode.AtomKind.BOUNDARY
+                && ((RegexpNode.Atom) node).source.equals(anchor);
+    }
+
+    /**
+     * Strips the anchors of regexps that can't be parsed, which are only
+     * recognized at the very start and end.
+     */
+    private static String stripOuterAnchors(String regexp) {
+        int start = regexp.startsWith("^") ? 1 : 0;
+        int end = regexp.length();
+        if (end > start && regexp.charAt(end - 1) == '$') {
+            // Unless the $ is escaped
+            int backslashes = 0;
+            for (int i = end - 2; i >= start && regexp.charAt(i) == '\\'; i--) {
+                backslashes++;
+            }
+            if (backslashes % 2 == 0) {
+                end--;
+            }
+        }
+        return regexp.substring(start, end);
     }
 
     public GroupBuilder getGroupBuilder() {
@@ -0,0 +1,148 @@
+package io.cucumber.cucumberexpressions;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Interns {@link TreeRegexp}s so that expressions that compile to the same
+ * regexp with the same flags share one {@link Pattern} and group tree. Both
+ * are immutable and safe to use from several threads.
+ * <p>
+ * The pool only holds on to regexps weakly, so they are released when the
+ * last expression using them is.
+ */
+final class TreeRegexpPool {
+    // Rough retained sizes, measured on a 64 bit JVM with compressed oops
+    private static final int PATTERN_BYTES = 160;
+    private static final int PATTERN_BYTES_PER_CHAR = 24;
+    private static final int GROUP_BUILDER_BYTES = 48;
+
+    private static final ConcurrentMap<Key, Entry> POOL = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<TreeRegexp> RELEASED = new ReferenceQueue<>();
+    private static final AtomicLong REQUESTS = new AtomicLong();
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong BYTES_SAVED = new AtomicLong();
+
+    private TreeRegexpPool() {
+    }
+
+    /**
+     * @param regexp a regexp to compile with the {@link PatternCompiler}
+     * @return a tree regexp for the regexp
+     */
+    static TreeRegexp intern(String regexp) {
+        PatternCompiler compiler = PatternCompilerProvider.getCompiler();
+        // The default compiler compiles like Pattern.compile, so its patterns can be shared with callers'
+        Key key = new Key(regexp, Pattern.UNICODE_CHARACTER_CLASS, compiler instanceof DefaultPatternCompiler ? null : compiler);
+        TreeRegexp treeRegexp = lookup(key);
+        if (treeRegexp != null) {
+            return treeRegexp;
+        }
+        return add(key, new TreeRegexp(compiler.compile(regexp, Pattern.UNICODE_CHARACTER_CLASS)));
+    }
+
+    /**
+     * @param pattern a compiled regexp
+     * @return a tree regexp for a pattern with the same regexp and flags
+     */
+    static TreeRegexp intern(Pattern pattern) {
+        Key key = new Key(pattern.pattern(), pattern.flags(), null);
+        TreeRegexp treeRegexp = lookup(key);
+        if (treeRegexp != null) {
+            return treeRegexp;
+        }
+        return add(key, new TreeRegexp(pattern));
+    }
+
+    static RegexpPoolStatistics getStatistics() {
+        expungeReleasedEntries();
+        return new RegexpPoolStatistics(POOL.size(), REQUESTS.get(), HITS.get(), BYTES_SAVED.get());
+    }
+
+    private static TreeRegexp lookup(Key key) {
+        expungeReleasedEntries();
+        REQUESTS.incrementAndGet();
+        Entry entry = POOL.get(key);
+        TreeRegexp treeRegexp = entry == null ? null : entry.get();
+        if (treeRegexp != null) {
+            recordHit(entry);
+        }
+        return treeRegexp;
+    }
+
+    private static TreeRegexp add(Key key, TreeRegexp treeRegexp) {
+        Entry entry = new Entry(key, treeRegexp, RELEASED);
+        while (true) {
+            Entry existing = POOL.putIfAbsent(key, entry);
+            if (existing == null) {
+                return treeRegexp;
+            }
+            TreeRegexp existingTreeRegexp = existing.get();
+            if (existingTreeRegexp != null) {
+                // Another thread interned the same regexp in the meantime
+                recordHit(existing);
+                return existingTreeRegexp;
+            }
+            if (POOL.replace(key, existing, entry)) {
+                return treeRegexp;
+            }
+        }
+    }
+
+    private static void recordHit(Entry entry) {
+        HITS.incrementAndGet();
+        BYTES_SAVED.addAndGet(entry.bytes);
+    }
+
+    private static void expungeReleasedEntries() {
+        Entry entry;
+        while ((entry = (Entry) RELEASED.poll()) != null) {
+            POOL.remove(entry.key, entry);
+        }
+    }
+
+    private static final class Entry extends WeakReference<TreeRegexp> {
+        private final Key key;
+        // The estimated size of the tree regexp, saved by each hit
+        private final long bytes;
+
+        Entry(Key key, TreeRegexp treeRegexp, ReferenceQueue<TreeRegexp> queue) {
+            super(treeRegexp, queue);
+            this.key = key;
+            this.bytes = PATTERN_BYTES
+                    + PATTERN_BYTES_PER_CHAR * treeRegexp.pattern().pattern().length()
+                    + GROUP_BUILDER_BYTES * (treeRegexp.pattern().matcher("").groupCount() + 1);
+        }
+    }
+
+    private static final class Key {
+        private final String regexp;
+        private final int flags;
+        // Null when the pattern was compiled by Pattern.compile
+        private final PatternCompiler compiler;
+
+        Key(String regexp, int flags, PatternCompiler compiler) {
+            this.regexp = regexp;
+            // Pattern implies UNICODE_CASE with UNICODE_CHARACTER_CLASS and reports both flags
+            this.flags = (flags & Pattern.UNICODE_CHARACTER_CLASS) != 0 ? flags | Pattern.UNICODE_CASE : flags;
+            this.compiler = compiler;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return flags == key.flags && compiler == key.compiler && regexp.equals(key.regexp);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * regexp.hashCode() + flags) + System.identityHashCode(compiler);
+        }
+    }
+}
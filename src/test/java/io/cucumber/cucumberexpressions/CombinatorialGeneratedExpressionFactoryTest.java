@@ -3,10 +3,13 @@ package io.cucumber.cucumberexpressions;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
 import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 
 public class CombinatorialGeneratedExpressionFactoryTest {
@@ -67,6 +70,23 @@ public class CombinatorialGeneratedExpressionFactoryTest {
                 "I bought a {csscolor} ball on {datetime}",
                 "I bought a {csscolor} ball on {timestamp}"
         ), expressions);
+
+        Iterator<GeneratedExpression> iterator = factory.iterator(4);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(expressions.get(i), iterator.next().getSource());
+        }
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void generates_one_expression_without_parameters() {
+        CombinatorialGeneratedExpressionFactory factory = new CombinatorialGeneratedExpressionFactory(
+                "I bought a ball",
+                Collections.<List<ParameterType<?>>>emptyList()
+        );
+        List<GeneratedExpression> generatedExpressions = factory.generateExpressions();
+        assertEquals(1, generatedExpressions.size());
+        assertEquals("I bought a ball", generatedExpressions.get(0).getSource());
     }
 
     public static class Color {
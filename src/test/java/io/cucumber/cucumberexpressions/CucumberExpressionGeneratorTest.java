@@ -8,12 +8,20 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Currency;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 public class CucumberExpressionGeneratorTest {
@@ -294,6 +302,89 @@ public class CucumberExpressionGeneratorTest {
         assertEquals(256, generator.generateExpressions("a simple step").size());
     }
 
+    @Test
+    public void generates_expressions_lazily_without_a_limit() {
+        for (int i = 0; i < 4; i++) {
+            ParameterType<String> myType = new ParameterType<>(
+                    "my-type-" + i,
+                    "[a-z]",
+                    String.class,
+                    new Transformer<String>() {
+                        @Override
+                        public String transform(String arg) {
+                            return arg;
+                        }
+                    },
+                    true,
+                    false
+            );
+            parameterTypeRegistry.defineParameterType(myType);
+        }
+        List<GeneratedExpression> limited = generator.generateExpressions("a simple step", 300);
+        assertEquals(300, limited.size());
+
+        Iterator<GeneratedExpression> iterator = generator.iterateExpressions("a simple step");
+        for (GeneratedExpression generatedExpression : limited) {
+            assertEquals(generatedExpression.getSource(), iterator.next().getSource());
+        }
+        assertTrue(iterator.hasNext());
+    }
+
+    @Test
+    public void generates_expressions_for_parameter_types_with_word_boundaries() {
+        ParameterType<String> word = new ParameterType<>(
+                "word-start",
+                "\\bc[a-z]+",
+                String.class,
+                new Transformer<String>() {
+                    @Override
+                    public String transform(String arg) {
+                        return arg;
+                    }
+                },
+                true,
+                false
+        );
+        parameterTypeRegistry.defineParameterType(word);
+        // The word boundary is found at the start of the region, after the int has been consumed
+        assertEquals("I have {int}{word-start}", generator.generateExpressions("I have 2cucumbers").get(0).getSource());
+    }
+
+    @Test
+    public void generates_expressions_for_many_texts() throws InterruptedException {
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            texts.add("I have " + i + " cukes and " + (i % 7) + ".5 tomatoes");
+            texts.add("I like \"cuke " + (i % 3) + "\"");
+        }
+        texts.add("I have 1 cukes and 1.5 tomatoes");
+
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            Map<String, List<GeneratedExpression>> generated = generator.generateExpressions(texts, executorService);
+            assertEquals(new LinkedHashSet<>(texts), generated.keySet());
+            for (Map.Entry<String, List<GeneratedExpression>> entry : generated.entrySet()) {
+                assertEquals(sources(generator.generateExpressions(entry.getKey())), sources(entry.getValue()));
+            }
+            // Texts with the same template share their generated expressions
+            assertSame(generated.get(texts.get(0)), generated.get(texts.get(2)));
+            Map<String, List<GeneratedExpression>> sequential = generator.generateExpressions(texts);
+            assertEquals(new ArrayList<>(generated.keySet()), new ArrayList<>(sequential.keySet()));
+            assertSame(sequential.get(texts.get(0)), sequential.get(texts.get(2)));
+        } finally {
+            executorService.shutdown();
+            executorService.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static List<String> sources(List<GeneratedExpression> generatedExpressions) {
+        List<String> sources = new ArrayList<>();
+        for (GeneratedExpression generatedExpression : generatedExpressions) {
+            sources.add(generatedExpression.getSource());
+        }
+        return sources;
+    }
+
     @Test
     public void prefers_expression_with_longest_non_empty_match() {
         ParameterType<String> zeroOrMore = new ParameterType<>(
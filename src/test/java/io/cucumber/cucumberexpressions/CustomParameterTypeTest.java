@@ -13,6 +13,10 @@ import static java.lang.Integer.parseInt;
 import static java.util.Arrays.asList;
 import static java.util.regex.Pattern.compile;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 public class CustomParameterTypeTest {
@@ -123,6 +127,32 @@ public class CustomParameterTypeTest {
         assertEquals(new Coordinate(40, 50, 60), to);
     }
 
+    @Test
+    public void matches_CucumberExpression_parameters_with_region_transformer() {
+        parameterTypeRegistry = new ParameterTypeRegistry(Locale.ENGLISH);
+        parameterTypeRegistry.defineParameterType(new ParameterType<>(
+                "coordinate",
+                "(\\d+),\\s*(\\d+)(?:,\\s*(\\d+))?",
+                Coordinate.class,
+                new RegionTransformer<Coordinate>() {
+                    @Override
+                    public Coordinate transform(CharSequence text, int[] offsets) {
+                        assertEquals(6, offsets.length);
+                        return new Coordinate(
+                                IntegerParser.parseInt(text, offsets[0], offsets[1]),
+                                IntegerParser.parseInt(text, offsets[2], offsets[3]),
+                                offsets[4] == -1 ? 0 : IntegerParser.parseInt(text, offsets[4], offsets[5]));
+                    }
+                },
+                false,
+                false
+        ));
+        Expression expression = new CucumberExpression("A line from {coordinate} to {coordinate}", parameterTypeRegistry);
+        List<Argument<?>> arguments = expression.match("A line from 10,20,30 to 40,50");
+        assertEquals(new Coordinate(10, 20, 30), arguments.get(0).getValue());
+        assertEquals(new Coordinate(40, 50, 0), arguments.get(1).getValue());
+    }
+
     @Test
     public void warns_when_CucumberExpression_parameters_with_multiple_capture_groups_has_a_transformer() {
         parameterTypeRegistry = new ParameterTypeRegistry(Locale.ENGLISH);
@@ -212,6 +242,42 @@ public class CustomParameterTypeTest {
         }
     }
 
+    @Test
+    public void reports_failed_transformation_without_throwing() {
+        parameterTypeRegistry.defineParameterType(new ParameterType<>(
+                "throwing",
+                "bad",
+                CssColor.class,
+                new Transformer<CssColor>() {
+                    @Override
+                    public CssColor transform(String arg) {
+                        throw new IllegalArgumentException(String.format("Can't transform [%s]", arg));
+                    }
+                },
+                false,
+                false
+        ));
+        Expression expression = new CucumberExpression("I have a {throwing} {color} parameter", parameterTypeRegistry);
+        List<Argument<?>> arguments = expression.match("I have a bad red parameter");
+
+        TransformResult<?> failure = arguments.get(0).tryGetValue();
+        assertFalse(failure.isSuccess());
+        assertEquals("Can't transform [bad]", failure.getCause().getMessage());
+        assertEquals("ParameterType {throwing} failed to transform [bad] to " + CssColor.class, failure.getException().getMessage());
+        assertSame(failure.getException(), failure.getException());
+        try {
+            failure.getValue();
+            fail("should have failed");
+        } catch (CucumberExpressionException expected) {
+            assertSame(failure.getException(), expected);
+        }
+
+        TransformResult<?> success = arguments.get(1).tryGetValue();
+        assertTrue(success.isSuccess());
+        assertEquals(new Color("red"), success.getValue());
+        assertNull(success.getException());
+    }
+
     @Test
     public void conflicting_parameter_type_is_detected_for_type_name() {
         try {
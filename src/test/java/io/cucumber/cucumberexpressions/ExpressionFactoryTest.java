@@ -64,6 +64,18 @@ public class ExpressionFactoryTest {
         createExpression("^the seller has {int} strike(s)$");
     }
 
+    @Test
+    public void validates_created_expressions() {
+        ExpressionFactory expressionFactory = new ExpressionFactory(
+                new ParameterTypeRegistry(Locale.ENGLISH),
+                RegexpComplexityAnalyzer.rejecting(ComplexityReport.Cost.LINEAR)
+        );
+        expressionFactory.createExpression("I have {int} cukes");
+
+        expectedException.expectMessage("The expression is too expensive to match: I have {} {word}: POLYNOMIAL");
+        expressionFactory.createExpression("I have {} {word}");
+    }
+
     private void assertRegularExpression(String expressionString) {
         assertRegularExpression(expressionString, expressionString);
     }
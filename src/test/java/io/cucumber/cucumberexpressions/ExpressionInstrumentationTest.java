@@ -0,0 +1,101 @@
+package io.cucumber.cucumberexpressions;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+
+public class ExpressionInstrumentationTest {
+    private final ParameterTypeRegistry parameterTypeRegistry = new ParameterTypeRegistry(Locale.ENGLISH);
+    private final List<String> events = new ArrayList<>();
+
+    @Before
+    public void record_events() {
+        parameterTypeRegistry.setExpressionInstrumentation(new ExpressionInstrumentation() {
+            @Override
+            public void parameterTypesResolved(Expression expression, long durationNanos) {
+                events.add("resolved " + expression.getSource());
+            }
+
+            @Override
+            public void regexpCompiled(Expression expression, long durationNanos) {
+                events.add("compiled " + expression.getSource());
+            }
+
+            @Override
+            public void expressionCreated(Expression expression, long durationNanos) {
+                events.add("created " + expression.getSource());
+            }
+
+            @Override
+            public void expressionMatched(Expression expression, int textLength, boolean matched, long durationNanos) {
+                events.add((matched ? "matched " : "missed ") + textLength + " chars");
+            }
+
+            @Override
+            public void matchTimedOut(Expression expression, int textLength) {
+                events.add("timed out " + textLength + " chars");
+            }
+
+            @Override
+            public void groupsBuilt(Expression expression, long durationNanos) {
+                events.add("built groups");
+            }
+
+            @Override
+            public void parameterTransformed(ParameterType<?> parameterType, boolean failed, long durationNanos) {
+                events.add("transformed {" + parameterType.getName() + "}");
+            }
+
+            @Override
+            public void snippetTextScanned(String text, long durationNanos) {
+                events.add("scanned " + text);
+            }
+        });
+    }
+
+    @Test
+    public void reports_the_phases_of_a_cucumber_expression() {
+        Expression expression = new CucumberExpression("I have {int} cukes", parameterTypeRegistry);
+        expression.match("I have 3 cukes").get(0).getValue();
+        expression.match("I have no cukes");
+
+        assertEquals(asList(
+                "resolved I have {int} cukes",
+                "compiled I have {int} cukes",
+                "created I have {int} cukes",
+                "matched 14 chars",
+                "built groups",
+                "transformed {int}",
+                "missed 15 chars"
+        ), events);
+    }
+
+    @Test
+    public void reports_the_phases_of_a_regular_expression() {
+        Expression expression = new RegularExpression(Pattern.compile("^I have (\\d+) cukes$"), parameterTypeRegistry);
+        expression.match("I have 3 cukes").get(0).getValue();
+
+        assertEquals(asList(
+                "compiled ^I have (\\d+) cukes$",
+                "created ^I have (\\d+) cukes$",
+                "resolved ^I have (\\d+) cukes$",
+                "matched 14 chars",
+                "built groups",
+                "transformed {int}"
+        ), events);
+    }
+
+    @Test
+    public void reports_snippet_scans() {
+        new CucumberExpressionGenerator(parameterTypeRegistry).generateExpressions("I have 3 cukes");
+
+        assertEquals(asList("scanned I have 3 cukes"), events);
+    }
+}
@@ -0,0 +1,98 @@
+package io.cucumber.cucumberexpressions;
+
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class ExpressionScannerTest {
+    private final ParameterTypeRegistry parameterTypeRegistry = new ParameterTypeRegistry(Locale.ENGLISH);
+    private final Expression cukes = new CucumberExpression("I have {int} cukes", parameterTypeRegistry);
+    private final Expression count = new CucumberExpression("{int} cukes", parameterTypeRegistry);
+
+    @Test
+    public void finds_all_occurrences_with_offsets_into_the_text() {
+        ExpressionScanner scanner = new ExpressionScanner(new ExpressionSet(singletonList(cukes)));
+
+        List<ExpressionMatch> matches = scanner.scanAll("Log: I have 3 cukes, then I have 42 cukes.");
+
+        assertEquals(2, matches.size());
+        assertEquals(5, matches.get(0).getStart());
+        assertEquals(19, matches.get(0).getEnd());
+        assertEquals(3, matches.get(0).getArguments().get(0).getValue());
+        Argument<?> argument = matches.get(1).getArguments().get(0);
+        assertEquals(42, argument.getValue());
+        assertEquals(33, argument.getGroup().getStart());
+        assertEquals(35, argument.getGroup().getEnd());
+    }
+
+    @Test
+    public void finds_the_leftmost_match_of_a_set_without_overlaps() {
+        ExpressionScanner scanner = new ExpressionScanner(new ExpressionSet(asList(count, cukes)));
+
+        List<ExpressionMatch> matches = scanner.scanAll("I have 3 cukes and 5 cukes");
+
+        assertEquals(asList(cukes, count), asList(matches.get(0).getExpression(), matches.get(1).getExpression()));
+        assertEquals(5, matches.get(1).getArguments().get(0).getValue());
+        assertEquals(19, matches.get(1).getStart());
+    }
+
+    @Test
+    public void prefers_the_expression_discovered_first_at_the_same_offset() {
+        Expression anything = new CucumberExpression("I have {word} cukes", parameterTypeRegistry);
+        ExpressionScanner scanner = new ExpressionScanner(new ExpressionSet(asList(anything, cukes)));
+
+        List<ExpressionMatch> matches = scanner.scanAll("I have 3 cukes");
+
+        assertEquals(singletonList(anything), singletonList(matches.get(0).getExpression()));
+    }
+
+    @Test
+    public void ignores_the_anchors_of_regular_expressions() {
+        Expression regularExpression = new RegularExpression(Pattern.compile("^took (\\d+) ms$"), parameterTypeRegistry);
+        ExpressionScanner scanner = new ExpressionScanner(new ExpressionSet(singletonList(regularExpression)));
+
+        Iterator<ExpressionMatch> matches = scanner.scan("step 1 took 12 ms, step 2 took 7 ms");
+
+        assertEquals(12, matches.next().getArguments().get(0).getValue());
+        assertEquals(7, matches.next().getArguments().get(0).getValue());
+        assertFalse(matches.hasNext());
+    }
+
+    @Test
+    public void ignores_the_anchors_of_each_alternative() {
+        Expression regularExpression = new RegularExpression(Pattern.compile("^(\\d+) apples$|^(\\d+) pears$"), parameterTypeRegistry);
+        ExpressionScanner scanner = new ExpressionScanner(new ExpressionSet(singletonList(regularExpression)));
+
+        List<ExpressionMatch> matches = scanner.scanAll("I have 3 apples and 4 pears today");
+
+        assertEquals(2, matches.size());
+        assertEquals("3 apples", "I have 3 apples and 4 pears today".substring(matches.get(0).getStart(), matches.get(0).getEnd()));
+        assertEquals("4 pears", "I have 3 apples and 4 pears today".substring(matches.get(1).getStart(), matches.get(1).getEnd()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void does_not_find_subclasses_that_may_match_differently() {
+        Expression subclass = new CucumberExpression("I have {int} cukes", parameterTypeRegistry) {
+        };
+        new ExpressionScanner(new ExpressionSet(singletonList(subclass)));
+    }
+
+    @Test
+    public void strips_unescaped_anchors() {
+        assertEquals("a", TreeRegexp.stripAnchors("^a$", 0));
+        assertEquals("a\\$", TreeRegexp.stripAnchors("a\\$", 0));
+        assertEquals("a\\\\", TreeRegexp.stripAnchors("^a\\\\$", 0));
+        assertEquals("(\\d+) apples|(\\d+) pears", TreeRegexp.stripAnchors("^(\\d+) apples$|^(\\d+) pears$", 0));
+        assertEquals("(?:^a$|b)c", TreeRegexp.stripAnchors("(?:^a$|b)c", 0));
+        // Regexps that can't be parsed
+        assertEquals("a b", TreeRegexp.stripAnchors("^a b$", Pattern.COMMENTS));
+    }
+}
@@ -0,0 +1,172 @@
+package io.cucumber.cucumberexpressions;
+
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ExpressionSetTest {
+    private final ParameterTypeRegistry parameterTypeRegistry = new ParameterTypeRegistry(Locale.ENGLISH);
+    private final Expression cukes = new CucumberExpression("I have {int} cukes", parameterTypeRegistry);
+    private final Expression anything = new CucumberExpression("I have {word} {word}", parameterTypeRegistry);
+    private final Expression belly = new CucumberExpression("my belly is {word}", parameterTypeRegistry);
+    private final ExpressionSet expressionSet = new ExpressionSet(asList(cukes, anything, belly));
+
+    @Test
+    public void matches_the_first_matching_expression() {
+        ExpressionMatch match = expressionSet.match("I have 42 cukes");
+        assertEquals(cukes, match.getExpression());
+        assertEquals(42, match.getArguments().get(0).getValue());
+        assertNull(expressionSet.match("I am hungry"));
+    }
+
+    @Test
+    public void tries_the_hottest_expressions_first() {
+        for (int i = 0; i < 3; i++) {
+            expressionSet.match("my belly is full");
+        }
+        expressionSet.match("I have many cukes");
+        expressionSet.reorder();
+
+        assertEquals(asList(belly, anything, cukes), expressionSet.getCandidates());
+        assertEquals(asList(cukes, anything, belly), expressionSet.getExpressions());
+    }
+
+    @Test
+    public void follows_changes_in_the_steps_being_matched() {
+        for (int i = 0; i < 4; i++) {
+            expressionSet.match("my belly is full");
+        }
+        expressionSet.reorder();
+        for (int i = 0; i < 3; i++) {
+            expressionSet.match("I have many cukes");
+        }
+        expressionSet.reorder();
+
+        assertEquals(asList(anything, belly, cukes), expressionSet.getCandidates());
+    }
+
+    @Test
+    public void matches_all_expressions_in_discovery_order() {
+        for (int i = 0; i < 3; i++) {
+            expressionSet.match("I have many cukes");
+        }
+        expressionSet.reorder();
+
+        List<Expression> expressions = new ArrayList<>();
+        for (ExpressionMatch match : expressionSet.matchAll("I have 42 cukes")) {
+            expressions.add(match.getExpression());
+        }
+        assertEquals(asList(cukes, anything), expressions);
+    }
+
+    @Test
+    public void remembers_texts_that_matched_no_expression() {
+        CountingExpression counting = new CountingExpression(cukes);
+        ExpressionSet expressionSet = new ExpressionSet(asList(counting), 10);
+
+        assertNull(expressionSet.match("I am hungry"));
+        assertNull(expressionSet.match("I am hungry"));
+        assertTrue(expressionSet.matchAll("I am hungry").isEmpty());
+        assertEquals(1, counting.matches);
+
+        expressionSet.match("I have 42 cukes");
+        expressionSet.match("I have 42 cukes");
+        assertEquals(3, counting.matches);
+    }
+
+    @Test
+    public void remembers_matches_by_text_and_type_hints() {
+        CountingExpression counting = new CountingExpression(cukes);
+        ExpressionSet expressionSet = new ExpressionSet(asList(counting), 0, 10);
+
+        ExpressionMatch match = expressionSet.match("I have 42 cukes");
+        assertSame(match, expressionSet.match("I have 42 cukes"));
+        assertEquals(42, expressionSet.match("I have 42 cukes").getArguments().get(0).getValue());
+        assertEquals(1, counting.matches);
+
+        expressionSet.match("I have 42 cukes", Long.class);
+        assertEquals(2, counting.matches);
+
+        MatchCacheStatistics statistics = expressionSet.getMatchCacheStatistics();
+        assertEquals(2, statistics.getEntries());
+        assertEquals(4, statistics.getRequests());
+        assertEquals(2, statistics.getHits());
+        assertTrue(statistics.getEstimatedBytes() > 0);
+    }
+
+    @Test
+    public void forgets_matches_when_a_registry_changes() {
+        ParameterTypeRegistry registry = new ParameterTypeRegistry(parameterTypeRegistry);
+        Expression thing = new RegularExpression(Pattern.compile("^I have a (\\w+)$"), registry);
+        ExpressionSet expressionSet = new ExpressionSet(asList(thing), 0, 10);
+        expressionSet.match("I have a cuke");
+        assertEquals("cuke", expressionSet.match("I have a cuke").getArguments().get(0).getValue());
+
+        registry.defineParameterType(new ParameterType<>("thing", "\\w+", StringBuilder.class, new Transformer<StringBuilder>() {
+            @Override
+            public StringBuilder transform(String arg) {
+                return new StringBuilder(arg);
+            }
+        }));
+        assertTrue(expressionSet.match("I have a cuke").getArguments().get(0).getValue() instanceof StringBuilder);
+    }
+
+    @Test
+    public void forgets_matches_when_the_default_parameter_transformer_is_replaced() {
+        ParameterTypeRegistry registry = new ParameterTypeRegistry(parameterTypeRegistry);
+        registry.setDefaultParameterTransformer(new ParameterByTypeTransformer() {
+            @Override
+            public Object transform(String fromValue, Type toValueType) {
+                return "transformed " + fromValue;
+            }
+        });
+        Expression anything = new CucumberExpression("I want {}", registry);
+        ExpressionSet expressionSet = new ExpressionSet(asList(anything), 0, 10);
+        expressionSet.match("I want cuke", StringBuilder.class);
+        assertEquals("transformed cuke", expressionSet.match("I want cuke", StringBuilder.class).getArguments().get(0).getValue());
+
+        registry.setDefaultParameterTransformer(new ParameterByTypeTransformer() {
+            @Override
+            public Object transform(String fromValue, Type toValueType) {
+                return "replaced " + fromValue;
+            }
+        });
+        assertEquals("replaced cuke", expressionSet.match("I want cuke", StringBuilder.class).getArguments().get(0).getValue());
+        assertEquals(1, expressionSet.getMatchCacheStatistics().getHits());
+    }
+
+    private static final class CountingExpression implements Expression {
+        private final Expression delegate;
+        private int matches;
+
+        CountingExpression(Expression delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public List<Argument<?>> match(String text, Type... typeHints) {
+            matches++;
+            return delegate.match(text, typeHints);
+        }
+
+        @Override
+        public Pattern getRegexp() {
+            return delegate.getRegexp();
+        }
+
+        @Override
+        public String getSource() {
+            return delegate.getSource();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package io.cucumber.cucumberexpressions;
+
+import io.cucumber.cucumberexpressions.ExpressionStatistics.ExpressionMetrics;
+import io.cucumber.cucumberexpressions.ExpressionStatistics.ParameterTypeMetrics;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ExpressionStatisticsTest {
+    private final ParameterTypeRegistry parameterTypeRegistry = new ParameterTypeRegistry(Locale.ENGLISH);
+    private final ExpressionStatistics statistics = new ExpressionStatistics();
+
+    @Test
+    public void counts_creations_hits_and_misses_by_expression() {
+        parameterTypeRegistry.setExpressionInstrumentation(statistics);
+        Expression expression = new CucumberExpression("I have {int} cukes", parameterTypeRegistry);
+        expression.match("I have 3 cukes");
+        expression.match("I have 4 cukes");
+        expression.match("I have many cukes");
+        new RegularExpression(Pattern.compile("^I have (\\d+) gherkins$"), parameterTypeRegistry).match("I have 1 gherkins");
+
+        ExpressionMetrics metrics = statistics.getExpressionMetrics().get("I have {int} cukes");
+        assertEquals(1, metrics.getCreations());
+        assertEquals(3, metrics.getAttempts());
+        assertEquals(2, metrics.getHits());
+        assertEquals(1, metrics.getMisses());
+        assertTrue(metrics.getMatchLatency().getCount() <= 3);
+        assertEquals(1, statistics.getExpressionMetrics().get("^I have (\\d+) gherkins$").getHits());
+    }
+
+    @Test
+    public void counts_timeouts_apart_from_misses() {
+        parameterTypeRegistry.setExpressionInstrumentation(statistics);
+        parameterTypeRegistry.setMatchTimeout(10, TimeUnit.MILLISECONDS);
+        // Backtracks through every way to split up the a's among the groups
+        Expression expression = new RegularExpression(Pattern.compile("^(.*a){12}$"), parameterTypeRegistry);
+        try {
+            expression.match("aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaac");
+            fail();
+        } catch (MatchTimeoutException expected) {
+        }
+
+        ExpressionMetrics metrics = statistics.getExpressionMetrics().get("^(.*a){12}$");
+        assertEquals(1, metrics.getTimeouts());
+        assertEquals(0, metrics.getMisses());
+        assertEquals(1, metrics.getAttempts());
+    }
+
+    @Test
+    public void counts_transforms_and_failures_by_parameter_type() {
+        parameterTypeRegistry.setExpressionInstrumentation(statistics);
+        Expression expression = new CucumberExpression("I have {byte} cukes", parameterTypeRegistry);
+        expression.match("I have 3 cukes").get(0).getValue();
+        assertFalse(expression.match("I have 300 cukes").get(0).tryGetValue().isSuccess());
+        try {
+            expression.match("I have 400 cukes").get(0).getValue();
+        } catch (CucumberExpressionException expected) {
+        }
+
+        ParameterTypeMetrics metrics = statistics.getParameterTypeMetrics().get("byte");
+        assertEquals(3, metrics.getTransforms());
+        assertEquals(2, metrics.getFailures());
+        assertTrue(metrics.getTransformLatency().getCount() <= 3);
+    }
+
+    @Test
+    public void child_registries_use_the_instrumentation_of_their_parent() {
+        parameterTypeRegistry.setExpressionInstrumentation(statistics);
+        ParameterTypeRegistry child = new ParameterTypeRegistry(parameterTypeRegistry);
+        new CucumberExpression("I have {int} cukes", child).match("I have 3 cukes");
+        assertEquals(1, statistics.getExpressionMetrics().get("I have {int} cukes").getHits());
+    }
+
+    @Test
+    public void records_nothing_once_the_instrumentation_is_removed() {
+        parameterTypeRegistry.setExpressionInstrumentation(statistics);
+        Expression expression = new CucumberExpression("I have {int} cukes", parameterTypeRegistry);
+        expression.match("I have 3 cukes").get(0).getValue();
+
+        parameterTypeRegistry.setExpressionInstrumentation(null);
+        assertNull(parameterTypeRegistry.getExpressionInstrumentation());
+        expression.match("I have 4 cukes").get(0).getValue();
+        expression.match("I have many cukes");
+        new CucumberExpression("I have {int} cukes", parameterTypeRegistry).match("I have 5 cukes");
+
+        ExpressionMetrics metrics = statistics.getExpressionMetrics().get("I have {int} cukes");
+        assertEquals(1, metrics.getCreations());
+        assertEquals(1, metrics.getAttempts());
+        assertEquals(1, statistics.getParameterTypeMetrics().get("int").getTransforms());
+    }
+
+    @Test
+    public void histogram_reports_percentile_upper_bounds() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentileUpperBound(50));
+        for (int i = 0; i < 90; i++) {
+            histogram.record(100);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(5000);
+        }
+        assertEquals(127, histogram.getPercentileUpperBound(50));
+        assertEquals(127, histogram.getPercentileUpperBound(90));
+        assertEquals(8191, histogram.getPercentileUpperBound(99));
+        assertEquals(100, histogram.getCount());
+    }
+
+    @Test
+    public void counts_from_many_threads() throws InterruptedException {
+        final StripedCounter counter = new StripedCounter();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread thread = new Thread() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 10000; j++) {
+                        counter.increment();
+                    }
+                }
+            };
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(80000, counter.sum());
+    }
+}
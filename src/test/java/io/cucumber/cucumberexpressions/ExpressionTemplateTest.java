@@ -0,0 +1,57 @@
+package io.cucumber.cucumberexpressions;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class ExpressionTemplateTest {
+    private final ParameterTypeRegistry parameterTypeRegistry = new ParameterTypeRegistry(Locale.ENGLISH);
+
+    @Test
+    public void renders_like_string_format() {
+        List<ParameterType<?>> parameterTypes = Arrays.<ParameterType<?>>asList(
+                parameterTypeRegistry.lookupByTypeName("int"),
+                parameterTypeRegistry.lookupByTypeName("string"));
+        for (String format : asList("I have {%s} cukes and {%s}", "{%s}{%s}", "100%% {%s} and {%s}%%", "%%s {%s} %%%s")) {
+            assertEquals(format,
+                    String.format(format, "int", "string"),
+                    ExpressionTemplate.parse(format).render(parameterTypes));
+        }
+        assertEquals("no slots", ExpressionTemplate.parse("no slots").render(Collections.<ParameterType<?>>emptyList()));
+    }
+
+    @Test
+    public void rejects_other_conversions() {
+        for (String format : asList("%d", "%1$s", "trailing %")) {
+            try {
+                ExpressionTemplate.parse(format);
+                fail("Expected IllegalArgumentException for " + format);
+            } catch (IllegalArgumentException expected) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void generated_expressions_render_other_conversions_with_string_format() {
+        List<ParameterType<?>> parameterTypes = Arrays.<ParameterType<?>>asList(
+                parameterTypeRegistry.lookupByTypeName("int"),
+                parameterTypeRegistry.lookupByTypeName("string"));
+        assertEquals("{string} {int}", new GeneratedExpression("{%2$s} {%1$s}", parameterTypes).getSource());
+        assertEquals(String.format("{int}%n{string}"), new GeneratedExpression("{%s}%n{%s}", parameterTypes).getSource());
+    }
+
+    @Test
+    public void names_parameters_after_their_type() {
+        GeneratedExpression generatedExpression = new GeneratedExpression("{%s} {%s} {%s}", Collections.<ParameterType<?>>nCopies(3,
+                parameterTypeRegistry.lookupByTypeName("int")));
+        assertEquals(asList("int1", "int2", "int3"), generatedExpression.getParameterNames());
+    }
+}
@@ -0,0 +1,89 @@
+package io.cucumber.cucumberexpressions;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class IntegerParserTest {
+
+    @Test
+    public void parses_decimal_numbers_like_decode() {
+        for (String s : asList(
+                "0", "-0", "7", "-7", "42", "-42", "12345678", "-12345678", "123456789", "99999999",
+                "100000000", "1234567890123456", "123456789012345678", "-123456789012345678",
+                "127", "-128", "32767", "-32768", "2147483647", "-2147483648",
+                "9223372036854775807", "-9223372036854775808")) {
+            assertEquals(s, Long.decode(s).longValue(), IntegerParser.parseLong(s, 0, s.length()));
+        }
+    }
+
+    @Test
+    public void falls_back_to_decode_for_other_forms() {
+        for (String s : asList("0x1F", "-0X1f", "#1F", "010", "-010", "+42", "00000000000", "１２", "1234567８")) {
+            assertEquals(s, Long.decode(s).longValue(), IntegerParser.parseLong(s, 0, s.length()));
+            assertEquals(s, Integer.decode(s).intValue(), IntegerParser.parseInt(s, 0, s.length()));
+        }
+    }
+
+    @Test
+    public void parses_a_region() {
+        String s = "I have 1234567890 cukes";
+        assertEquals(1234567890, IntegerParser.parseInt(s, 7, 17));
+        assertEquals(123, IntegerParser.parseShort(s, 7, 10));
+        assertEquals(-5, IntegerParser.parseByte("x-5x", 1, 3));
+    }
+
+    @Test
+    public void detects_overflow() {
+        assertOverflow("128", Byte.class);
+        assertOverflow("-129", Byte.class);
+        assertOverflow("32768", Short.class);
+        assertOverflow("-32769", Short.class);
+        assertOverflow("2147483648", Integer.class);
+        assertOverflow("-2147483649", Integer.class);
+        assertOverflow("9223372036854775808", Long.class);
+        assertOverflow("-9223372036854775809", Long.class);
+        assertOverflow("123456789012345678901234567890", Long.class);
+    }
+
+    @Test
+    public void rejects_non_numbers() {
+        for (String s : asList("", "-", "1a", "12345678a", "1234567_")) {
+            try {
+                IntegerParser.parseLong(s, 0, s.length());
+                fail("Expected NumberFormatException for " + s);
+            } catch (NumberFormatException expected) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void agrees_with_decode_on_random_numbers() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            long value = random.nextLong() >> random.nextInt(64);
+            String s = Long.toString(value);
+            assertEquals(s, value, IntegerParser.parseLong(s, 0, s.length()));
+            if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+                assertEquals(s, (int) value, IntegerParser.parseInt(s, 0, s.length()));
+            }
+        }
+    }
+
+    private static void assertOverflow(String s, Class<?> type) {
+        try {
+            if (type == Byte.class) IntegerParser.parseByte(s, 0, s.length());
+            if (type == Short.class) IntegerParser.parseShort(s, 0, s.length());
+            if (type == Integer.class) IntegerParser.parseInt(s, 0, s.length());
+            if (type == Long.class) IntegerParser.parseLong(s, 0, s.length());
+            fail("Expected NumberFormatException for " + s);
+        } catch (NumberFormatException expected) {
+            // expected
+        }
+    }
+}
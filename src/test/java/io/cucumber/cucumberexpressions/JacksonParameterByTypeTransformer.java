@@ -0,0 +1,36 @@
+package io.cucumber.cucumberexpressions;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+import java.lang.reflect.Type;
+
+/**
+ * Reference {@link BindableParameterByTypeTransformer} backed by Jackson.
+ * Each type is resolved once into an {@link ObjectReader}, which is then
+ * reused for every transform to that type.
+ */
+class JacksonParameterByTypeTransformer implements BindableParameterByTypeTransformer {
+    private final ObjectMapper objectMapper;
+
+    JacksonParameterByTypeTransformer(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Transformer<Object> bind(Type toValueType) {
+        final ObjectReader reader = objectMapper.readerFor(objectMapper.getTypeFactory().constructType(toValueType));
+        return new Transformer<Object>() {
+            @Override
+            public Object transform(String arg) throws Throwable {
+                return arg == null ? null : reader.readValue(TextNode.valueOf(arg));
+            }
+        };
+    }
+
+    @Override
+    public Object transform(String fromValue, Type toValueType) throws Throwable {
+        return bind(toValueType).transform(fromValue);
+    }
+}
@@ -3,8 +3,14 @@ package io.cucumber.cucumberexpressions;
 import org.junit.Test;
 
 import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.text.ParseException;
 import java.util.Locale;
+import java.util.Random;
 
+import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
 
 public class NumberParserTest {
@@ -29,4 +35,79 @@ public class NumberParserTest {
         assertEquals(new BigDecimal("1042.0000000000000000000002"), english.parseBigDecimal("1,042.0000000000000000000002"));
         assertEquals(new BigDecimal("1042.0000000000000000000002"), german.parseBigDecimal( "1.042,0000000000000000000002"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void can_parse_a_region() {
+        assertEquals(4.2, english.parseDouble("I have 4.2 cukes", 7, 10), 0);
+        assertEquals(-4.2f, english.parseFloat("I have -4.2 cukes", 7, 11), 0);
+    }
+
+    @Test
+    public void parses_edge_cases_like_decimal_format() {
+        for (Locale locale : asList(Locale.ENGLISH, Locale.GERMAN)) {
+            NumberParser parser = new NumberParser(locale);
+            for (String s : asList("0", "-0", "-0.0", ".5", "-.5", "5.", "1,2,3.4", "1.2.3", "1,,2", "1E3",
+                    "9007199254740993", "9007199254740992.5", "0.1", "0,1", "123456789012345678901234567890.5",
+                    "0.0000000000000000000000001", "1.00000000000000000000000", "16777217", "16777216.5")) {
+                assertBitExact(locale, parser, s);
+            }
+        }
+    }
+
+    @Test
+    public void fast_path_is_bit_exact_with_decimal_format() {
+        Random random = new Random(42);
+        for (Locale locale : asList(Locale.ENGLISH, Locale.GERMAN, Locale.FRENCH, new Locale("de", "CH"))) {
+            NumberParser parser = new NumberParser(locale);
+            DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+            for (int i = 0; i < 20000; i++) {
+                assertBitExact(locale, parser, randomNumber(random, symbols));
+            }
+        }
+    }
+
+    private static String randomNumber(Random random, DecimalFormatSymbols symbols) {
+        StringBuilder sb = new StringBuilder();
+        if (random.nextBoolean()) {
+            sb.append(symbols.getMinusSign());
+        }
+        int integerDigits = random.nextInt(20);
+        for (int i = 0; i < integerDigits; i++) {
+            sb.append((char) ('0' + random.nextInt(10)));
+            if (i < integerDigits - 1 && (integerDigits - i - 1) % 3 == 0 && random.nextInt(4) == 0) {
+                sb.append(symbols.getGroupingSeparator());
+            }
+        }
+        if (integerDigits == 0 || random.nextBoolean()) {
+            sb.append(symbols.getDecimalSeparator());
+            int fractionDigits = 1 + random.nextInt(25);
+            for (int i = 0; i < fractionDigits; i++) {
+                sb.append((char) ('0' + random.nextInt(10)));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void assertBitExact(Locale locale, NumberParser parser, String s) {
+        Number expected = parseWithDecimalFormat(locale, s);
+        if (expected == null) {
+            return;
+        }
+        assertEquals(locale + " " + s,
+                Double.doubleToRawLongBits(expected.doubleValue()),
+                Double.doubleToRawLongBits(parser.parseDouble(s)));
+        assertEquals(locale + " " + s,
+                Float.floatToRawIntBits(expected.floatValue()),
+                Float.floatToRawIntBits(parser.parseFloat(s)));
+    }
+
+    private static Number parseWithDecimalFormat(Locale locale, String s) {
+        NumberFormat numberFormat = DecimalFormat.getNumberInstance(locale);
+        ((DecimalFormat) numberFormat).setParseBigDecimal(true);
+        try {
+            return numberFormat.parse(s);
+        } catch (ParseException e) {
+            return null;
+        }
+    }
+}
@@ -24,7 +24,8 @@ public class ParameterByTypeTransformerTest {
     public static Collection<ParameterByTypeTransformer> objectMapperImplementations() {
         return asList(
                 new BuiltInParameterTransformer(ENGLISH),
-                new TestJacksonDefaultTransformer()
+                new TestJacksonDefaultTransformer(),
+                new JacksonParameterByTypeTransformer(new com.fasterxml.jackson.databind.ObjectMapper())
         );
     }
 
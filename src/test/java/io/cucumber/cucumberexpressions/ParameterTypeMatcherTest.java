@@ -0,0 +1,61 @@
+package io.cucumber.cucumberexpressions;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ParameterTypeMatcherTest {
+
+    @Test
+    public void detects_region_sensitive_regexps() {
+        for (String regexp : asList("^a", "a|^b", "\\ba", "a\\B", "\\Aa", "\\Ga", "(?<=a)b", "(?<!a)b", "(?m)^a")) {
+            assertTrue(regexp, ParameterTypeMatcher.isRegionSensitive(regexp));
+        }
+        for (String regexp : asList("a", "[^a]+", "[]^]", "[^^]", "\\^", "\\\\b", "a$", "(?<name>a)", "\\Q^\\b\\E", "[\\b]",
+                "\"([^\"\\\\]*(\\\\.[^\"\\\\]*)*)\"")) {
+            assertFalse(regexp, ParameterTypeMatcher.isRegionSensitive(regexp));
+        }
+    }
+
+    @Test
+    public void match_found_from_earlier_position_is_still_valid() {
+        Random random = new Random(42);
+        for (String regexp : asList("a+", "a*", "ab|a", "(a|b)+c?", "[^b]+", "a+$", "(?<name>b)a*", "a(?=b)", "-?\\d+")) {
+            Pattern pattern = Pattern.compile("(" + regexp + ")");
+            assertFalse(regexp, ParameterTypeMatcher.isRegionSensitive(regexp));
+            for (int i = 0; i < 200; i++) {
+                String text = randomText(random);
+                for (int from = 0; from <= text.length(); from++) {
+                    ParameterTypeMatcher earlier = matcher(pattern, text);
+                    earlier.advanceToAndFind(from);
+                    for (int to = from; to <= text.length(); to++) {
+                        if (earlier.isStillValidFrom(to)) {
+                            ParameterTypeMatcher fresh = matcher(pattern, text);
+                            assertTrue(regexp + " " + text, fresh.advanceToAndFind(to));
+                            assertEquals(regexp + " " + text, 0, fresh.compareTo(earlier));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static ParameterTypeMatcher matcher(Pattern pattern, String text) {
+        return new ParameterTypeMatcher(null, pattern.matcher(text), text.length(), false);
+    }
+
+    private static String randomText(Random random) {
+        StringBuilder sb = new StringBuilder();
+        int length = random.nextInt(10);
+        for (int i = 0; i < length; i++) {
+            sb.append("ab1-c ".charAt(random.nextInt(6)));
+        }
+        return sb.toString();
+    }
+}
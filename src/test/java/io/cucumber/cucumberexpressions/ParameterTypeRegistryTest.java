@@ -4,11 +4,21 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 public class ParameterTypeRegistryTest {
 
@@ -150,4 +160,236 @@ public class ParameterTypeRegistryTest {
         }));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void binds_default_transformer_once_per_type() throws Throwable {
+        final List<Type> boundTypes = new ArrayList<>();
+        registry.setDefaultParameterTransformer(new BindableParameterByTypeTransformer() {
+            @Override
+            public Transformer<Object> bind(final Type toValueType) {
+                boundTypes.add(toValueType);
+                return new Transformer<Object>() {
+                    @Override
+                    public Object transform(String arg) {
+                        return toValueType + ":" + arg;
+                    }
+                };
+            }
+
+            @Override
+            public Object transform(String fromValue, Type toValueType) {
+                throw new UnsupportedOperationException();
+            }
+        });
+
+        Expression cucumberExpression = new CucumberExpression("{} and {}", registry);
+        Expression regularExpression = new RegularExpression(Pattern.compile("(.*) or (.*)"), registry);
+        for (int i = 0; i < 3; i++) {
+            assertEquals("class java.lang.Integer:1", cucumberExpression.match("1 and 2", Integer.class, String.class).get(0).getValue());
+            assertEquals("class java.lang.String:4", regularExpression.match("3 or 4", Integer.class, String.class).get(1).getValue());
+        }
+
+        assertEquals(asList((Type) Integer.class, String.class), boundTypes);
+    }
+
+    @Test
+    public void child_registries_bind_the_default_transformer_of_their_parent_themselves() {
+        final List<Type> boundTypes = new ArrayList<>();
+        registry.setDefaultParameterTransformer(new BindableParameterByTypeTransformer() {
+            @Override
+            public Transformer<Object> bind(final Type toValueType) {
+                boundTypes.add(toValueType);
+                return new Transformer<Object>() {
+                    @Override
+                    public Object transform(String arg) {
+                        return "bound:" + arg;
+                    }
+                };
+            }
+
+            @Override
+            public Object transform(String fromValue, Type toValueType) {
+                throw new UnsupportedOperationException();
+            }
+        });
+        ParameterTypeRegistry child = new ParameterTypeRegistry(registry);
+        ParameterTypeRegistry sibling = new ParameterTypeRegistry(registry);
+
+        assertEquals("bound:1", new CucumberExpression("{}", child).match("1", Name.class).get(0).getValue());
+        assertEquals("bound:2", new CucumberExpression("{}", child).match("2", Name.class).get(0).getValue());
+        assertEquals("bound:3", new CucumberExpression("{}", sibling).match("3", Name.class).get(0).getValue());
+        assertEquals(asList((Type) Name.class, Name.class), boundTypes);
+
+        registry.setDefaultParameterTransformer(new ParameterByTypeTransformer() {
+            @Override
+            public Object transform(String fromValue, Type toValueType) {
+                return "replaced:" + fromValue;
+            }
+        });
+        assertEquals("replaced:4", new CucumberExpression("{}", child).match("4", Name.class).get(0).getValue());
+    }
+
+    @Test
+    public void child_registries_fall_back_to_their_parent() {
+        ParameterType<Name> name = new ParameterType<>("name", CAPITALISED_WORD, Name.class, new Transformer<Name>() {
+            @Override
+            public Name transform(String arg) {
+                return new Name(arg);
+            }
+        }, false, true);
+        ParameterTypeRegistry child = new ParameterTypeRegistry(registry);
+        ParameterTypeRegistry sibling = new ParameterTypeRegistry(registry);
+        child.defineParameterType(name);
+
+        assertSame(name, child.lookupByTypeName("name"));
+        assertSame(registry.lookupByTypeName("int"), child.lookupByTypeName("int"));
+        assertNull(sibling.lookupByTypeName("name"));
+        assertNull(registry.lookupByTypeName("name"));
+        assertTrue(child.getParameterTypes().containsAll(registry.getParameterTypes()));
+        assertTrue(child.getParameterTypes().contains(name));
+        assertEquals(42, new CucumberExpression("{int} {name}", child).match("42 Lisa").get(0).getValue());
+        assertSame(registry.getDefaultParameterTransformer(), child.getDefaultParameterTransformer());
+    }
+
+    @Test
+    public void child_registries_see_parameter_types_of_their_parent() {
+        ParameterTypeRegistry child = new ParameterTypeRegistry(registry);
+        registry.defineParameterType(new ParameterType<>("name", CAPITALISED_WORD, Name.class, new Transformer<Name>() {
+            @Override
+            public Name transform(String arg) {
+                return new Name(arg);
+            }
+        }, false, true));
+        expectedException.expectMessage("There can only be one preferential parameter type per regexp. The regexp /[A-Z]+\\w+/ is used for two preferential parameter types, {name} and {place}");
+
+        child.defineParameterType(new ParameterType<>("place", CAPITALISED_WORD, Place.class, new Transformer<Place>() {
+            @Override
+            public Place transform(String arg) {
+                return new Place(arg);
+            }
+        }, false, true));
+    }
+
+    @Test
+    public void does_not_allow_child_registries_to_redefine_parameter_types() {
+        expectedException.expect(DuplicateTypeNameException.class);
+        expectedException.expectMessage("There is already a parameter type with name int");
+        new ParameterTypeRegistry(registry).defineParameterType(new ParameterType<>("int", "\\d+", Integer.class, new Transformer<Integer>() {
+            @Override
+            public Integer transform(String arg) {
+                return Integer.valueOf(arg);
+            }
+        }));
+    }
+
+    @Test
+    public void tells_listeners_about_defined_parameter_types() {
+        final List<String> defined = new ArrayList<>();
+        ParameterTypeRegistry child = new ParameterTypeRegistry(registry);
+        child.addParameterTypeListener(new ParameterTypeListener() {
+            @Override
+            public void parameterTypeDefined(ParameterTypeRegistry definedIn, ParameterType<?> parameterType) {
+                defined.add(parameterType.getName() + (definedIn == registry ? " in parent" : " in child"));
+            }
+        });
+        long version = child.getVersion();
+
+        registry.defineParameterType(new ParameterType<>("name", CAPITALISED_WORD, Name.class, new Transformer<Name>() {
+            @Override
+            public Name transform(String arg) {
+                return new Name(arg);
+            }
+        }));
+        assertTrue(child.getVersion() > version);
+        version = child.getVersion();
+        child.defineParameterType(new ParameterType<>("place", CAPITALISED_WORD, Place.class, new Transformer<Place>() {
+            @Override
+            public Place transform(String arg) {
+                return new Place(arg);
+            }
+        }));
+        assertTrue(child.getVersion() > version);
+
+        assertEquals(asList("name in parent", "place in child"), defined);
+    }
+
+    @Test
+    public void does_not_tell_removed_listeners() {
+        final List<String> defined = new ArrayList<>();
+        ParameterTypeRegistry child = new ParameterTypeRegistry(registry);
+        ParameterTypeListener listener = new ParameterTypeListener() {
+            @Override
+            public void parameterTypeDefined(ParameterTypeRegistry definedIn, ParameterType<?> parameterType) {
+                defined.add(parameterType.getName());
+            }
+        };
+        child.addParameterTypeListener(listener);
+        child.removeParameterTypeListener(listener);
+
+        registry.defineParameterType(new ParameterType<>("name", CAPITALISED_WORD, Name.class, new Transformer<Name>() {
+            @Override
+            public Name transform(String arg) {
+                return new Name(arg);
+            }
+        }));
+
+        assertTrue(defined.isEmpty());
+    }
+
+    @Test
+    public void parents_do_not_keep_the_listeners_of_their_children() throws InterruptedException {
+        WeakReference<ParameterTypeRegistry> child = createChildWithListener();
+
+        for (int i = 0; i < 50 && child.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        assertNull(child.get());
+    }
+
+    private WeakReference<ParameterTypeRegistry> createChildWithListener() {
+        final ParameterTypeRegistry child = new ParameterTypeRegistry(registry);
+        // Like a cache of the expressions created with the child
+        child.addParameterTypeListener(new ParameterTypeListener() {
+            private final Expression expression = new CucumberExpression("{int}", child);
+
+            @Override
+            public void parameterTypeDefined(ParameterTypeRegistry definedIn, ParameterType<?> parameterType) {
+            }
+        });
+        return new WeakReference<>(child);
+    }
+
+    @Test
+    public void does_not_allow_frozen_registries_to_change() {
+        ParameterTypeRegistry child = new ParameterTypeRegistry(registry);
+        child.freeze();
+        assertFalse(child.isFrozen());
+        registry.freeze();
+        assertTrue(child.isFrozen());
+
+        expectedException.expectMessage("The parameter type registry is frozen");
+        child.defineParameterType(new ParameterType<>("name", CAPITALISED_WORD, Name.class, new Transformer<Name>() {
+            @Override
+            public Name transform(String arg) {
+                return new Name(arg);
+            }
+        }));
+    }
+
+    @Test
+    public void looks_up_parameter_types_by_equivalent_regexp() {
+        assertSame(registry.lookupByTypeName("int"), registry.lookupByRegexp("(?:-?\\d+)", Pattern.compile("((?:-?\\d+))"), "42"));
+        assertSame(registry.lookupByTypeName("word"), registry.lookupByRegexp("\\S+", Pattern.compile("(\\S+)"), "cukes"));
+    }
+
+    @Test
+    public void child_registries_use_the_match_timeout_of_their_parent() {
+        ParameterTypeRegistry child = new ParameterTypeRegistry(registry);
+        assertEquals(0, child.getMatchTimeout(TimeUnit.MILLISECONDS));
+        registry.setMatchTimeout(5, TimeUnit.SECONDS);
+        assertEquals(5000, child.getMatchTimeout(TimeUnit.MILLISECONDS));
+        child.setMatchTimeout(0, TimeUnit.SECONDS);
+        assertEquals(0, child.getMatchTimeout(TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,102 @@
+package io.cucumber.cucumberexpressions;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class RegexpCanonicalizerTest {
+    private static final List<String> REGEXPS = asList(
+            "-?\\d+", "\\d+", "-?\\d*[.,]\\d+", "[^\\s]+", ".*",
+            "\"([^\"\\\\]*(\\\\.[^\"\\\\]*)*)\"|'([^'\\\\]*(\\\\.[^'\\\\]*)*)'",
+            "(?:a|b)+c", "a(?:b|c)d", "(?:(?:ab)){1}c", "(?:a){2,}b{0,}c{1,}d{0,1}?", "(a)(?:\\1)0", "(a)\\1(?:0)",
+            "(?:(?i)a)b", "(?i:a)b", "[]a]+(?:[\\d])*", "[a-c&&[^b]]+", "\\Q(?:a)\\E(?:b)", "(?<name>a)\\k<name>",
+            "(?:x)?+", "(?:ab)*?", "\\p{L}+(?:\\p{Lu})", "(?=a)(?:a)", "a|(?:b|c)", "((?:a|b))", "(?:)+a", "\\x41(?:1)",
+            "(?:a|ab){1}+c", "(?:\\d+){1}+\\d", "a{1}+b", "(?:a){1}?b"
+    );
+
+    @Test
+    public void removes_redundant_notation() {
+        assertEquals("\\d+", RegexpCanonicalizer.canonicalize("(?:\\d+)"));
+        assertEquals("\\d+", RegexpCanonicalizer.canonicalize("(?:\\d)+"));
+        assertEquals("\\d+", RegexpCanonicalizer.canonicalize("\\d{1,}"));
+        assertEquals("\\d*", RegexpCanonicalizer.canonicalize("[\\d]{0,}"));
+        assertEquals("\\S+", RegexpCanonicalizer.canonicalize("[^\\s]+"));
+        assertEquals("ab", RegexpCanonicalizer.canonicalize("(?:a)(?:b){1}"));
+        assertEquals("a|b|c", RegexpCanonicalizer.canonicalize("a|(?:b|c)"));
+        assertEquals("(a|b)", RegexpCanonicalizer.canonicalize("((?:a|b))"));
+        assertEquals("x(?:a|b)", RegexpCanonicalizer.canonicalize("x(?:a|b)"));
+    }
+
+    @Test
+    public void keeps_notation_that_matters() {
+        // \d matches other digits than [0-9] with UNICODE_CHARACTER_CLASS
+        assertEquals("[0-9]+", RegexpCanonicalizer.canonicalize("[0-9]+"));
+        // The flags only apply inside the group
+        assertEquals("(?:(?i)a)b", RegexpCanonicalizer.canonicalize("(?:(?i)a)b"));
+        // \10 would be a different back reference
+        assertEquals("(a)(b)(c)(d)(e)(f)(g)(h)(i)(j)\\1(?:0)", RegexpCanonicalizer.canonicalize("(a)(b)(c)(d)(e)(f)(g)(h)(i)(j)\\1(?:0)"));
+        // Sequences must stay grouped when quantified
+        assertEquals("(?:ab)+", RegexpCanonicalizer.canonicalize("(?:ab)+"));
+        // A possessive {1} doesn't backtrack into its body
+        assertEquals("(?>a|ab)c", RegexpCanonicalizer.canonicalize("(?:a|ab){1}+c"));
+        assertEquals("(?>\\d+)\\d", RegexpCanonicalizer.canonicalize("(?:\\d+){1}+\\d"));
+        assertEquals("ab", RegexpCanonicalizer.canonicalize("a{1}+b"));
+        assertFalse(Pattern.compile(RegexpCanonicalizer.canonicalize("(?:a|ab){1}+c")).matcher("abc").matches());
+        assertFalse(Pattern.compile(RegexpCanonicalizer.canonicalize("(?:\\d+){1}+\\d")).matcher("123").matches());
+    }
+
+    @Test
+    public void leaves_regexps_it_does_not_understand_alone() {
+        assertNull(RegexpParser.parse("(?x) a # comment"));
+        assertNull(RegexpParser.parse("a", Pattern.COMMENTS));
+        assertNull(RegexpParser.parse("(unbalanced"));
+        assertEquals("(?x) (?:a) # comment", RegexpCanonicalizer.canonicalize("(?x) (?:a) # comment"));
+    }
+
+    @Test
+    public void parsed_and_canonical_regexps_are_equivalent() {
+        Random random = new Random(42);
+        for (String regexp : REGEXPS) {
+            RegexpNode node = RegexpParser.parse(regexp);
+            assertNotNull(regexp, node);
+            Pattern original = Pattern.compile(regexp);
+            Pattern parsed = Pattern.compile(node.toRegexp());
+            Pattern canonical = Pattern.compile(RegexpCanonicalizer.canonicalize(regexp));
+            assertEquals(regexp, original.matcher("").groupCount(), canonical.matcher("").groupCount());
+            for (int i = 0; i < 2000; i++) {
+                String text = randomText(random);
+                assertSameMatch(regexp + " " + text, original.matcher(text), parsed.matcher(text));
+                assertSameMatch(regexp + " " + text, original.matcher(text), canonical.matcher(text));
+            }
+        }
+    }
+
+    private static void assertSameMatch(String message, Matcher expected, Matcher actual) {
+        boolean matches = expected.find();
+        assertEquals(message, matches, actual.find());
+        if (matches) {
+            for (int group = 0; group <= expected.groupCount(); group++) {
+                assertEquals(message, expected.group(group), actual.group(group));
+            }
+        }
+    }
+
+    private static String randomText(Random random) {
+        String alphabet = "abcdAB01 -.,\"'\\(?:)]";
+        StringBuilder sb = new StringBuilder();
+        int length = random.nextInt(8);
+        for (int i = 0; i < length; i++) {
+            sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,124 @@
+package io.cucumber.cucumberexpressions;
+
+import io.cucumber.cucumberexpressions.ComplexityReport.Cost;
+import io.cucumber.cucumberexpressions.ComplexityReport.Kind;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RegexpComplexityAnalyzerTest {
+    private final ParameterTypeRegistry parameterTypeRegistry = new ParameterTypeRegistry(Locale.ENGLISH);
+
+    @Test
+    public void built_in_parameter_types_are_linear() {
+        ComplexityReport report = analyze("I have {int} {float} {word} {string} {biginteger}");
+        assertEquals(Cost.LINEAR, report.getCost());
+        assertEquals(0, report.getWarnings().size());
+    }
+
+    @Test
+    public void word_followed_by_anonymous_is_linear() {
+        // A word can't give back the space that separates it from the anonymous parameter
+        assertEquals(Cost.LINEAR, analyze("I have {word} {}").getCost());
+    }
+
+    @Test
+    public void flags_overlapping_parameters() {
+        ComplexityReport report = analyze("I have {} {word}");
+        assertEquals(Cost.POLYNOMIAL, report.getCost());
+        assertEquals(singletonList(Kind.OVERLAPPING_QUANTIFIERS), kinds(report));
+        assertEquals(".*", report.getWarnings().get(0).getFragment());
+    }
+
+    @Test
+    public void flags_nested_quantifiers() {
+        ComplexityReport report = RegexpComplexityAnalyzer.analyze(Pattern.compile("^(a+)+b$"));
+        assertEquals(Cost.EXPONENTIAL, report.getCost());
+        assertEquals(singletonList(Kind.NESTED_QUANTIFIER), kinds(report));
+        assertEquals("a+", report.getWarnings().get(0).getFragment());
+    }
+
+    @Test
+    public void flags_bounded_repetitions_of_quantifiers() {
+        assertEquals(Cost.POLYNOMIAL, RegexpComplexityAnalyzer.analyze(Pattern.compile("^(.*a){12}$")).getCost());
+    }
+
+    @Test
+    public void flags_ambiguous_alternations() {
+        ComplexityReport report = RegexpComplexityAnalyzer.analyze(Pattern.compile("^(?:\\w|\\d)+$"));
+        assertEquals(Cost.EXPONENTIAL, report.getCost());
+        assertEquals(singletonList(Kind.AMBIGUOUS_ALTERNATION), kinds(report));
+    }
+
+    @Test
+    public void possessive_quantifiers_and_atomic_groups_are_linear() {
+        assertEquals(Cost.LINEAR, RegexpComplexityAnalyzer.analyze(Pattern.compile("^(.*+) (.*)$")).getCost());
+        assertEquals(Cost.LINEAR, RegexpComplexityAnalyzer.analyze(Pattern.compile("^(?>a+)+b$")).getCost());
+    }
+
+    @Test
+    public void unrolled_loops_are_linear() {
+        assertEquals(Cost.LINEAR, RegexpComplexityAnalyzer.analyze(Pattern.compile("^\"([^\"\\\\]*(\\\\.[^\"\\\\]*)*)\"$")).getCost());
+    }
+
+    @Test
+    public void does_not_analyze_unsupported_syntax() {
+        ComplexityReport report = RegexpComplexityAnalyzer.analyze(Pattern.compile("(?i)(a+)+"));
+        assertFalse(report.isAnalyzed());
+        assertEquals(Cost.UNKNOWN, report.getCost());
+    }
+
+    @Test
+    public void rejects_expressions_that_could_not_be_analyzed() {
+        ExpressionValidator validator = RegexpComplexityAnalyzer.rejecting(Cost.EXPONENTIAL);
+        for (String regexp : asList("(?i)^(a+)+$", "^(?x)(a+)+ $")) {
+            try {
+                validator.validate(new RegularExpression(Pattern.compile(regexp), parameterTypeRegistry));
+                fail("Expected " + regexp + " to be rejected");
+            } catch (CucumberExpressionException expected) {
+                assertTrue(expected.getMessage().startsWith("The cost of matching the expression could not be analyzed"));
+            }
+        }
+    }
+
+    @Test
+    public void accepts_expressions_that_could_not_be_analyzed_when_asked_to() {
+        ExpressionValidator validator = RegexpComplexityAnalyzer.rejecting(Cost.LINEAR, true);
+        validator.validate(new RegularExpression(Pattern.compile("(?i)^(a+)+$"), parameterTypeRegistry));
+        try {
+            validator.validate(new RegularExpression(Pattern.compile("^(a+)+$"), parameterTypeRegistry));
+            fail();
+        } catch (CucumberExpressionException expected) {
+            assertTrue(expected.getMessage().startsWith("The expression is too expensive to match"));
+        }
+    }
+
+    @Test
+    public void reports_all_warnings() {
+        ComplexityReport report = RegexpComplexityAnalyzer.analyze(Pattern.compile("^(.*) (.*) (a+)+b$"));
+        assertEquals(asList(Kind.NESTED_QUANTIFIER, Kind.OVERLAPPING_QUANTIFIERS, Kind.OVERLAPPING_QUANTIFIERS), kinds(report));
+        assertEquals(Cost.EXPONENTIAL, report.getCost());
+    }
+
+    private ComplexityReport analyze(String expression) {
+        return RegexpComplexityAnalyzer.analyze(new CucumberExpression(expression, parameterTypeRegistry));
+    }
+
+    private static List<Kind> kinds(ComplexityReport report) {
+        List<Kind> kinds = new ArrayList<>();
+        for (ComplexityReport.Warning warning : report.getWarnings()) {
+            kinds.add(warning.getKind());
+        }
+        return kinds;
+    }
+}
@@ -0,0 +1,105 @@
+package io.cucumber.cucumberexpressions;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+
+public class RegexpOptimizerTest {
+    @Test
+    public void makes_quantifiers_followed_by_other_characters_possessive() {
+        assertEquals("^I have (-?+\\d++) ([^\\s]++) cucumbers$", RegexpOptimizer.optimize("^I have (-?\\d+) ([^\\s]+) cucumbers$", 0));
+    }
+
+    @Test
+    public void makes_string_regexp_possessive() {
+        assertEquals(
+                "\"([^\"\\\\]*+(\\\\.[^\"\\\\]*+)*)\"|'([^'\\\\]*+(\\\\.[^'\\\\]*+)*)'",
+                RegexpOptimizer.optimize("\"([^\"\\\\]*(\\\\.[^\"\\\\]*)*)\"|'([^'\\\\]*(\\\\.[^'\\\\]*)*)'", 0)
+        );
+    }
+
+    @Test
+    public void leaves_quantifiers_followed_by_the_same_characters_alone() {
+        assertEquals("^(.*) (.*+)$", RegexpOptimizer.optimize("^(.*) (.*)$", 0));
+        assertEquals("(\\d*)([0-9]++)", RegexpOptimizer.optimize("(\\d*)([0-9]+)", 0));
+    }
+
+    @Test
+    public void makes_float_regexp_possessive() {
+        assertEquals("-?+\\d*+[.,]\\d++", RegexpOptimizer.optimize("-?\\d*[.,]\\d+", 0));
+    }
+
+    @Test
+    public void leaves_regexps_with_flags_alone() {
+        assertEquals("a*b", RegexpOptimizer.optimize("a*b", Pattern.CASE_INSENSITIVE));
+        assertEquals("(?i)a*b", RegexpOptimizer.optimize("(?i)a*b", 0));
+    }
+
+    @Test
+    public void leaves_regexps_followed_by_back_references_alone() {
+        assertEquals("(a)b*\\1", RegexpOptimizer.optimize("(a)b*\\1", 0));
+    }
+
+    @Test
+    public void optimized_regexps_match_the_same_groups() {
+        String[] atoms = {"a", "b", " ", "-", "1", "\"", "\\\\", ".", "\\d", "\\s", "\\S", "[ab]", "[^a]", "[^\"\\\\]", "[a-c1]", "\\b", "$", "(?=a)"};
+        String[] quantifiers = {"", "", "*", "+", "?", "{1,2}", "*?", "{2}"};
+        String alphabet = "ab -1\"\\\n";
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            String regexp = randomRegexp(random, atoms, quantifiers, 2);
+            Pattern original = Pattern.compile(regexp, Pattern.UNICODE_CHARACTER_CLASS);
+            Pattern optimized = RegexpOptimizer.optimize(original);
+            for (int j = 0; j < 40; j++) {
+                StringBuilder text = new StringBuilder();
+                int length = random.nextInt(8);
+                for (int k = 0; k < length; k++) {
+                    text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                }
+                assertSameMatch(original, optimized, text.toString());
+            }
+        }
+    }
+
+    private static void assertSameMatch(Pattern original, Pattern optimized, String text) {
+        String message = original.pattern() + " / " + optimized.pattern() + " on '" + text + "'";
+        Matcher expected = original.matcher(text);
+        Matcher actual = optimized.matcher(text);
+        assertEquals(message, expected.matches(), actual.matches());
+        if (!expected.matches()) {
+            return;
+        }
+        assertEquals(message, expected.groupCount(), actual.groupCount());
+        for (int group = 1; group <= expected.groupCount(); group++) {
+            assertEquals(message, expected.group(group), actual.group(group));
+        }
+    }
+
+    private static String randomRegexp(Random random, String[] atoms, String[] quantifiers, int depth) {
+        StringBuilder regexp = new StringBuilder();
+        int items = 1 + random.nextInt(4);
+        for (int i = 0; i < items; i++) {
+            int choice = random.nextInt(10);
+            if (depth > 0 && choice < 2) {
+                regexp.append(choice == 0 ? "(" : "(?:")
+                        .append(randomRegexp(random, atoms, quantifiers, depth - 1));
+                if (random.nextInt(3) == 0) {
+                    regexp.append('|').append(randomRegexp(random, atoms, quantifiers, depth - 1));
+                }
+                regexp.append(')');
+            } else {
+                regexp.append(atoms[random.nextInt(atoms.length)]);
+            }
+            String quantifier = quantifiers[random.nextInt(quantifiers.length)];
+            // Boundaries can't be quantified
+            if (regexp.charAt(regexp.length() - 1) != '$' && !regexp.toString().endsWith("\\b")) {
+                regexp.append(quantifier);
+            }
+        }
+        return regexp.toString();
+    }
+}
@@ -6,13 +6,17 @@ import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
 import static java.util.regex.Pattern.compile;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class RegularExpressionTest {
 
@@ -35,6 +39,15 @@ public class RegularExpressionTest {
         assertEquals(singletonList(22), match);
     }
 
+    @Test
+    public void transforms_groups_that_only_differ_in_notation_from_a_parameter_type() {
+        assertEquals(singletonList(22), match(compile("([\\d]+)"), "22"));
+        assertEquals(singletonList(22), match(compile("((?:\\d+))"), "22"));
+        assertEquals(singletonList(22), match(compile("(\\d{1,})"), "22"));
+        // [0-9] is not \d with UNICODE_CHARACTER_CLASS
+        assertEquals(singletonList("22"), match(compile("([0-9]+)"), "22"));
+    }
+
     @Test
     public void matches_nested_capture_group_without_match() {
         List<?> match = match(compile("^a user( named \"([^\"]*)\")?$"), "a user");
@@ -137,6 +150,44 @@ public class RegularExpressionTest {
         assertEquals(singletonList("0.22"), match(compile("(.*)"), "0.22"));
     }
 
+    @Test
+    public void matches_within_the_match_timeout() {
+        parameterTypeRegistry.setMatchTimeout(1, TimeUnit.SECONDS);
+        assertEquals(asList(7, "belly"), match(compile("I have (\\d+) cukes? in my (\\w+) now"), "I have 7 cukes in my belly now"));
+    }
+
+    @Test
+    public void aborts_matches_that_take_longer_than_the_match_timeout() {
+        parameterTypeRegistry.setMatchTimeout(10, TimeUnit.MILLISECONDS);
+        // Backtracks through every way to split up the a's among the groups
+        RegularExpression expression = new RegularExpression(compile("^(.*a){12}$"), parameterTypeRegistry);
+        try {
+            expression.match("aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaac");
+            fail();
+        } catch (MatchTimeoutException expected) {
+            assertEquals("^(.*a){12}$", expected.getExpression());
+        }
+        assertEquals(singletonMap("^(.*a){12}$", 1L), parameterTypeRegistry.getMatchTimeouts());
+    }
+
+    @Test
+    public void only_starts_timeout_messages_with_long_texts() {
+        parameterTypeRegistry.setMatchTimeout(10, TimeUnit.MILLISECONDS);
+        RegularExpression expression = new RegularExpression(compile("^(.*a){12}$"), parameterTypeRegistry);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            text.append('a');
+        }
+        text.append('c');
+        try {
+            expression.match(text.toString());
+            fail();
+        } catch (MatchTimeoutException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("...\" (1001 chars)"));
+            assertTrue(expected.getMessage(), expected.getMessage().length() < 250);
+        }
+    }
+
     private List<?> match(Pattern pattern, String text, Type... types) {
         RegularExpression regularExpression = new RegularExpression(pattern, parameterTypeRegistry);
         List<Argument<?>> arguments = regularExpression.match(text, types);
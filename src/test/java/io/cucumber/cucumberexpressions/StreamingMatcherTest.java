@@ -0,0 +1,123 @@
+package io.cucumber.cucumberexpressions;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class StreamingMatcherTest {
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final ParameterTypeRegistry parameterTypeRegistry = new ParameterTypeRegistry(Locale.ENGLISH);
+    private final ExpressionSet expressionSet = new ExpressionSet(asList(
+            new CucumberExpression("I have {int} cukes", parameterTypeRegistry),
+            new RegularExpression(Pattern.compile("^my belly is (\\w+)$"), parameterTypeRegistry)
+    ));
+    private final ExecutorService executorService = Executors.newFixedThreadPool(4);
+    private final StreamingMatcher streamingMatcher = new StreamingMatcher(expressionSet, executorService, 2, 3);
+    private final List<String> reported = new ArrayList<>();
+    private final StreamingMatcher.Listener listener = new StreamingMatcher.Listener() {
+        @Override
+        public void onText(long index, CharSequence text, ExpressionMatch match) {
+            reported.add(index + ": " + text + " -> " + (match == null ? "none" : match.getArguments().get(0).getValue()));
+        }
+    };
+
+    @After
+    public void shutdown() {
+        executorService.shutdown();
+    }
+
+    @Test
+    public void matches_lines_in_order() throws IOException {
+        streamingMatcher.matchLines(new StringReader("I have 1 cukes\r\nmy belly is full\n\nI am hungry\nI have 5 cukes"), listener);
+
+        assertEquals(asList(
+                "0: I have 1 cukes -> 1",
+                "1: my belly is full -> full",
+                "2:  -> none",
+                "3: I am hungry -> none",
+                "4: I have 5 cukes -> 5"
+        ), reported);
+    }
+
+    @Test
+    public void matches_many_lines_and_long_lines() throws IOException {
+        StringBuilder input = new StringBuilder();
+        List<String> expected = new ArrayList<>();
+        StringBuilder longWord = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            longWord.append('x');
+        }
+        input.append("I have ").append(longWord).append(" cukes\n");
+        expected.add("0: I have " + longWord + " cukes -> none");
+        for (int i = 1; i < 1000; i++) {
+            input.append("I have ").append(i).append(" cukes\n");
+            expected.add(i + ": I have " + i + " cukes -> " + i);
+        }
+
+        streamingMatcher.matchLines(new StringReader(input.toString()), listener);
+
+        assertEquals(expected, reported);
+    }
+
+    @Test
+    public void matches_texts_in_order() {
+        streamingMatcher.match(asList("my belly is empty", "I have 3 cukes", "I am hungry").iterator(), listener);
+
+        assertEquals(asList(
+                "0: my belly is empty -> empty",
+                "1: I have 3 cukes -> 3",
+                "2: I am hungry -> none"
+        ), reported);
+    }
+
+    @Test
+    public void matches_the_lines_of_a_mapped_file() throws IOException {
+        File file = temporaryFolder.newFile();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write("I have 1 cukes\r\nmy belly is gr\u00f6\u00dfer\nI am hungry and want a lot more cukes\nI have 22 cukes".getBytes(StandardCharsets.UTF_8));
+        }
+        final List<CharSequence> texts = new ArrayList<>();
+
+        try (FileChannel channel = new FileInputStream(file).getChannel()) {
+            // Smaller than some lines, so they have to be mapped again
+            streamingMatcher.matchLines(channel, StandardCharsets.UTF_8, new StreamingMatcher.Listener() {
+                @Override
+                public void onText(long index, CharSequence text, ExpressionMatch match) {
+                    texts.add(text);
+                    listener.onText(index, text, match);
+                }
+            }, 16);
+        }
+
+        assertEquals(asList(
+                "0: I have 1 cukes -> 1",
+                "1: my belly is gr\u00f6\u00dfer -> none",
+                "2: I am hungry and want a lot more cukes -> none",
+                "3: I have 22 cukes -> 22"
+        ), reported);
+        assertTrue(texts.get(0) instanceof ByteCharSequence);
+        assertTrue(texts.get(1) instanceof CharArraySequence);
+        assertEquals("my belly is gr\u00f6\u00dfer", texts.get(1).toString());
+    }
+}
@@ -0,0 +1,43 @@
+package io.cucumber.cucumberexpressions;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class StripedLruCacheTest {
+    @Test
+    public void evicts_the_least_recently_used_entries() {
+        StripedLruCache<Integer, String> cache = new StripedLruCache<>(1);
+        cache.put(1, "one");
+        cache.put(2, "two");
+        assertNull(cache.get(1));
+        assertEquals("two", cache.get(2));
+    }
+
+    @Test
+    public void holds_at_most_about_the_maximum_size() {
+        StripedLruCache<Integer, String> cache = new StripedLruCache<>(64);
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, String.valueOf(i));
+        }
+        assertTrue(cache.size() <= 64);
+        assertEquals("999", cache.get(999));
+    }
+
+    @Test
+    public void keeps_the_weight_of_the_remaining_entries() {
+        StripedLruCache<Integer, String> cache = new StripedLruCache<>(1, new StripedLruCache.Weigher<Integer, String>() {
+            @Override
+            public long weigh(Integer key, String value) {
+                return value.length();
+            }
+        });
+        cache.put(1, "one");
+        cache.put(1, "uno");
+        assertEquals(3, cache.weight());
+        cache.put(3, "three");
+        assertEquals(5, cache.weight());
+    }
+}
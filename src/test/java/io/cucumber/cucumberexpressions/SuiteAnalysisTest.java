@@ -0,0 +1,53 @@
+package io.cucumber.cucumberexpressions;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertEquals;
+
+public class SuiteAnalysisTest {
+    private final ParameterTypeRegistry parameterTypeRegistry = new ParameterTypeRegistry(Locale.ENGLISH);
+    private final Expression cukes = new CucumberExpression("I have {int} cukes", parameterTypeRegistry);
+    private final Expression anything = new CucumberExpression("I have {word} {word}", parameterTypeRegistry);
+    private final Expression belly = new CucumberExpression("my belly is {word}", parameterTypeRegistry);
+    private final Expression unused = new CucumberExpression("I eat {int} cukes", parameterTypeRegistry);
+    private final ExpressionSet expressionSet = new ExpressionSet(asList(cukes, anything, belly, unused));
+
+    @Test
+    public void reports_undefined_and_ambiguous_steps_and_unused_expressions() {
+        SuiteReport report = expressionSet.analyze(asList(
+                "I have 42 cukes",
+                "I have many cukes",
+                "I am hungry",
+                "I have 42 cukes"
+        ));
+
+        assertEquals(asList("I am hungry"), report.getUndefinedSteps());
+        assertEquals(singletonMap("I have 42 cukes", asList(cukes, anything)), report.getAmbiguousSteps());
+        assertEquals(asList(belly, unused), report.getUnusedExpressions());
+        assertEquals(3, report.getSteps());
+        assertEquals(12, report.getMatchAttempts());
+    }
+
+    @Test
+    public void keeps_the_order_of_the_steps_when_run_in_parallel() {
+        List<String> steps = new ArrayList<>();
+        List<String> undefinedSteps = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            steps.add("my belly is " + i);
+            steps.add("I am hungry " + i);
+            undefinedSteps.add("I am hungry " + i);
+        }
+
+        SuiteReport report = expressionSet.analyze(steps, new ForkJoinPool(4));
+
+        assertEquals(undefinedSteps, report.getUndefinedSteps());
+        assertEquals(asList(cukes, anything, unused), report.getUnusedExpressions());
+    }
+}
@@ -0,0 +1,52 @@
+package io.cucumber.cucumberexpressions;
+
+import org.junit.Test;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TreeRegexpPoolTest {
+
+    @Test
+    public void shares_tree_regexps_with_the_same_regexp_and_flags() {
+        TreeRegexp treeRegexp = TreeRegexpPool.intern("^I have (\\d+) pooled cukes$");
+        assertSame(treeRegexp, TreeRegexpPool.intern("^I have (\\d+) pooled cukes$"));
+        assertSame(treeRegexp, TreeRegexpPool.intern(Pattern.compile("^I have (\\d+) pooled cukes$", Pattern.UNICODE_CHARACTER_CLASS)));
+
+        TreeRegexp caseInsensitive = TreeRegexpPool.intern(Pattern.compile("^I have (\\d+) pooled cukes$", Pattern.CASE_INSENSITIVE));
+        assertNotSame(treeRegexp, caseInsensitive);
+        assertSame(caseInsensitive, TreeRegexpPool.intern(Pattern.compile("^I have (\\d+) pooled cukes$", Pattern.CASE_INSENSITIVE)));
+    }
+
+    @Test
+    public void reports_shared_regexps() {
+        ParameterTypeRegistry registry = new ParameterTypeRegistry(Locale.ENGLISH);
+        CucumberExpression first = new CucumberExpression("I have {int} reported cukes", registry);
+        RegexpPoolStatistics before = RegexpPoolStatistics.snapshot();
+        CucumberExpression second = new CucumberExpression("I have {int} reported cukes", registry);
+        RegexpPoolStatistics after = RegexpPoolStatistics.snapshot();
+
+        assertEquals(before.getRequests() + 1, after.getRequests());
+        assertEquals(before.getHits() + 1, after.getHits());
+        assertTrue(after.getEstimatedBytesSaved() > before.getEstimatedBytesSaved());
+        assertEquals(42, second.match("I have 42 reported cukes").get(0).getValue());
+        assertEquals(7, first.match("I have 7 reported cukes").get(0).getValue());
+    }
+
+    @Test
+    public void group_trees_cannot_be_changed() {
+        TreeRegexp treeRegexp = TreeRegexpPool.intern("^(a)(b)$");
+        try {
+            treeRegexp.getGroupBuilder().getChildren().add(new GroupBuilder());
+            fail("Expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException expected) {
+            // expected
+        }
+    }
+}
@@ -146,4 +146,22 @@ public class TreeRegexpTest {
         assertEquals("1a", tr.match("1a").getValue());
         PatternCompilerProvider.service = null;
     }
+
+    @Test
+    public void compiles_optimized_regexps_with_the_pattern_compiler_service() {
+        final List<String> compiled = new ArrayList<>();
+        PatternCompilerProvider.service = new PatternCompiler() {
+            @Override
+            public Pattern compile(String regexp, int flags) {
+                compiled.add(regexp);
+                return Pattern.compile(regexp, flags);
+            }
+        };
+        try {
+            new TreeRegexp("(\\d+) cukes");
+            assertEquals(asList("(\\d+) cukes", "(\\d++) cukes"), compiled);
+        } finally {
+            PatternCompilerProvider.service = null;
+        }
+    }
 }